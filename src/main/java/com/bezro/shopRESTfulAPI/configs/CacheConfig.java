@@ -0,0 +1,11 @@
+package com.bezro.shopRESTfulAPI.configs;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Caches are created from the spring.cache.* properties on Caffeine (spring.cache.type).
+// The Hibernate second-level cache is separate, it runs on Caffeine's JCache provider configured in application.conf
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
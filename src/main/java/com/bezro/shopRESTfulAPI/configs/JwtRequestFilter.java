@@ -1,7 +1,11 @@
 package com.bezro.shopRESTfulAPI.configs;
 
 import com.bezro.shopRESTfulAPI.constants.JwtConstants;
+import com.bezro.shopRESTfulAPI.jwtUtils.JwtTokenCache;
 import com.bezro.shopRESTfulAPI.jwtUtils.JwtTokenUtils;
+import com.bezro.shopRESTfulAPI.jwtUtils.JwtUserPrincipal;
+import com.bezro.shopRESTfulAPI.jwtUtils.VerifiedToken;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -9,42 +13,62 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 public class JwtRequestFilter extends OncePerRequestFilter {
     private final JwtTokenUtils jwtTokenUtils;
+    private final JwtTokenCache jwtTokenCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader(JwtConstants.AUTHORIZATION_HEADER_NAME);
-        String username = null;
-        String jwt = null;
+        VerifiedToken verifiedToken = null;
 
-        if (authHeader != null && authHeader.startsWith(JwtConstants.AUTHORIZATION_HEADER_STARTS_WITH)) {
-            jwt = authHeader.substring(7);
+        if (authHeader != null && authHeader.startsWith(JwtConstants.AUTHORIZATION_HEADER_STARTS_WITH)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwt = authHeader.substring(JwtConstants.AUTHORIZATION_HEADER_STARTS_WITH.length());
             try {
-                username = jwtTokenUtils.getUsername(jwt);
+                verifiedToken = jwtTokenCache.get(jwt, this::verify);
             } catch (ExpiredJwtException e) {
                 logger.debug("Expired JWT");
             } catch (Exception e) {
                 logger.debug("Invalid token");
             }
         }
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (verifiedToken != null) {
             UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(
-                    username,
+                    verifiedToken.getPrincipal(),
                     null,
-                    jwtTokenUtils.getRoles(jwt).stream().map(role -> new SimpleGrantedAuthority((String) role)).toList()
+                    verifiedToken.getAuthorities()
             );
             SecurityContextHolder.getContext().setAuthentication(token);
         }
         filterChain.doFilter(request, response);
     }
+
+    private VerifiedToken verify(String jwt) {
+        //One signature check per token, subject, id, roles and expiry all come from these claims
+        Claims claims = jwtTokenUtils.getAllClaimsFromToken(jwt);
+        String username = claims.getSubject();
+        Long userId = claims.get(JwtConstants.USER_ID_CLAIM, Long.class);
+        if (username == null || userId == null) {
+            //Tokens issued before the id claim was added have to be renewed by logging in again
+            logger.debug("JWT without username or user id");
+            return null;
+        }
+        List<?> roles = claims.get(JwtConstants.ROLES_CLAIM, List.class);
+        List<GrantedAuthority> authorities = roles.stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority((String) role))
+                .toList();
+        return new VerifiedToken(new JwtUserPrincipal(userId, username), authorities, claims.getExpiration().toInstant());
+    }
 }
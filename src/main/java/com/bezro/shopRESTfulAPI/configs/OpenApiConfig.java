@@ -18,7 +18,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.web.method.HandlerMethod;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 @Configuration
@@ -28,30 +27,13 @@ public class OpenApiConfig {
     public OpenAPI springOpenAPI() {
         final String securitySchemeName = "bearerAuth";
 
-        Schema productSchema = new Schema<Object>()
-                .properties(Map.of(
-                        "id", new IntegerSchema(),
-                        "name", new StringSchema(),
-                        "description", new StringSchema(),
-                        "price", new NumberSchema(),
-                        "quantity", new NumberSchema())
-                );
-
-        Schema getProductsSchema = new Schema<Map<String, Object>>()
-                .type("object")
-                .addProperty("products", new ArraySchema().items(productSchema))
-                .addProperty("currentPage", new IntegerSchema())
-                .addProperty("totalItems", new IntegerSchema())
-                .addProperty("totalPages", new IntegerSchema());
-
         return new OpenAPI().addSecurityItem(new SecurityRequirement().addList(securitySchemeName))
                 .components(new Components()
                         .addSecuritySchemes(securitySchemeName, new SecurityScheme()
                                 .name(securitySchemeName)
                                 .type(SecurityScheme.Type.HTTP)
                                 .scheme("bearer")
-                                .bearerFormat("JWT"))
-                        .addSchemas("CustomResponse", getProductsSchema))
+                                .bearerFormat("JWT")))
 
                 .info(new Info().title("Shop REST API").description("APIs for a shop").version("1.0")
                         .license(new License().name("Dev Team").url("https://github.com/ElenaBezro")))
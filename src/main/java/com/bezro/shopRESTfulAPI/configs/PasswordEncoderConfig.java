@@ -1,19 +1,33 @@
 package com.bezro.shopRESTfulAPI.configs;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
 public class PasswordEncoderConfig {
+    @Value("${security.bcrypt.strength:10}")
+    private int strength;
+
+    @Value("${security.bcrypt.pool-size:4}")
+    private int poolSize;
+
+    @Value("${security.bcrypt.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${security.bcrypt.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength),
+                poolSize, queueCapacity, retryAfterSeconds, meterRegistry);
     }
 
 }
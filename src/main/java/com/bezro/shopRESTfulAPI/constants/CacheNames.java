@@ -0,0 +1,11 @@
+package com.bezro.shopRESTfulAPI.constants;
+
+public class CacheNames {
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT_FACETS = "productFacets";
+
+    // Hibernate second-level cache regions, configured in application.conf
+    public static final String PRODUCT_ENTITIES = "productEntities";
+    public static final String ROLE_ENTITIES = "roleEntities";
+    public static final String ROLE_QUERIES = "roleQueries";
+}
@@ -3,4 +3,6 @@ package com.bezro.shopRESTfulAPI.constants;
 public class JwtConstants {
     public static final String AUTHORIZATION_HEADER_NAME = "Authorization";
     public static final String AUTHORIZATION_HEADER_STARTS_WITH = "Bearer ";
+    public static final String ROLES_CLAIM = "roles";
+    public static final String USER_ID_CLAIM = "uid";
 }
@@ -21,6 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -48,14 +49,16 @@ public class AuthController {
     public JwtResponse login(@Valid @RequestBody LoginUserDto loginRequest) {
         log.info("Received login request: {}", loginRequest);
 
+        Authentication authentication;
         try {
-            authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
         } catch (BadCredentialsException e) {
             log.error("Invalid login credentials: {}", e.getMessage());
             throw new InvalidLoginCredentialsException("Login or password is invalid");
         }
 
-        JwtResponse jwtResponse = authService.login(loginRequest);
+        JwtResponse jwtResponse = authService.login(authentication);
         log.info("User logged in successfully: {}", jwtResponse);
         return jwtResponse;
     }
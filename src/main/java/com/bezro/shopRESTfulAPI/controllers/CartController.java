@@ -6,6 +6,7 @@ import com.bezro.shopRESTfulAPI.dtos.CreateCartItemDto;
 import com.bezro.shopRESTfulAPI.dtos.CreateProductDto;
 import com.bezro.shopRESTfulAPI.exceptions.ApiException;
 import com.bezro.shopRESTfulAPI.exceptions.ExceptionResponse;
+import com.bezro.shopRESTfulAPI.jwtUtils.AuthenticatedUser;
 import com.bezro.shopRESTfulAPI.services.CartService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -20,9 +21,9 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.util.List;
 
 @Slf4j
@@ -67,9 +68,9 @@ public class CartController {
                             )
                     )
             )
-            @Valid @RequestBody CreateCartItemDto cartItemDto, Principal principal) {
+            @Valid @RequestBody CreateCartItemDto cartItemDto, @AuthenticationPrincipal AuthenticatedUser principal) {
         log.info("Adding cart item: {}", cartItemDto);
-        return cartService.addCartItem(cartItemDto, principal.getName());
+        return cartService.addCartItem(cartItemDto, principal.getId());
     }
 
     @PutMapping("/{id}")
@@ -108,8 +109,9 @@ public class CartController {
                             )
                     )
             )
-            @Valid @RequestBody CreateCartItemDto cartItemDto, @PathVariable Long id, Principal principal) {
-        return cartService.updateCartItemQuantity(cartItemDto, principal.getName(), id);
+            @Valid @RequestBody CreateCartItemDto cartItemDto, @PathVariable Long id,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        return cartService.updateCartItemQuantity(cartItemDto, principal.getId(), id);
     }
 
     @DeleteMapping("/{id}")
@@ -138,8 +140,8 @@ public class CartController {
             @ApiResponse(responseCode = "401", description = "User should be authenticated",
                     content = @Content(schema = @Schema(implementation = ApiException.class)))
     })
-    public List<CartItemResponse> getAllCartItems(Principal principal) {
-        log.info("Getting all cart items for user: {}", principal.getName());
-        return cartService.getAllCartItems(principal.getName());
+    public List<CartItemResponse> getAllCartItems(@AuthenticationPrincipal AuthenticatedUser principal) {
+        log.info("Getting all cart items for user: {}", principal.getUsername());
+        return cartService.getAllCartItemResponses(principal.getId());
     }
 }
@@ -2,9 +2,11 @@ package com.bezro.shopRESTfulAPI.controllers;
 
 import com.bezro.shopRESTfulAPI.constants.ResponseMessages;
 import com.bezro.shopRESTfulAPI.dtos.OrderResponse;
+import com.bezro.shopRESTfulAPI.dtos.OrdersVersion;
 import com.bezro.shopRESTfulAPI.dtos.UpdateOrderDto;
 import com.bezro.shopRESTfulAPI.exceptions.ApiException;
 import com.bezro.shopRESTfulAPI.exceptions.ExceptionResponse;
+import com.bezro.shopRESTfulAPI.jwtUtils.AuthenticatedUser;
 import com.bezro.shopRESTfulAPI.services.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -19,9 +21,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.security.Principal;
 import java.util.List;
 
 @Slf4j
@@ -48,9 +51,9 @@ public class OrderController {
             @ApiResponse(responseCode = "401", description = "User should be authenticated",
                     content = @Content(schema = @Schema(implementation = ApiException.class)))
     })
-    public OrderResponse createOrder(Principal principal) {
-        log.info("Creating order for user: {}", principal.getName());
-        return orderService.createOrder(principal.getName());
+    public OrderResponse createOrder(@AuthenticationPrincipal AuthenticatedUser principal) {
+        log.info("Creating order for user: {}", principal.getUsername());
+        return orderService.createOrder(principal.getId());
     }
 
     @PatchMapping("/{orderId}")
@@ -93,11 +96,24 @@ public class OrderController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful operation",
                     content = @Content(array = @ArraySchema(schema = @Schema(implementation = OrderResponse.class)))),
+            @ApiResponse(responseCode = "304", description = "Orders did not change since If-None-Match or If-Modified-Since"),
             @ApiResponse(responseCode = "401", description = "User should be authenticated",
                     content = @Content(schema = @Schema(implementation = ApiException.class)))
     })
-    public List<OrderResponse> getAllOrders(Principal principal) {
-        log.info("Getting all orders for user: {}", principal.getName());
-        return orderService.getAllOrders(principal.getName());
+    public List<OrderResponse> getAllOrders(@AuthenticationPrincipal AuthenticatedUser principal, WebRequest webRequest) {
+        log.info("Getting all orders for user: {}", principal.getUsername());
+        //The orders are only loaded when the client copy is outdated.
+        //Last-Modified has a precision of seconds, the ETag tells apart changes within the same second.
+        //The order items embed their products, so a write to one of those products outdates the orders as well
+        OrdersVersion ordersVersion = orderService.getOrdersVersion(principal.getId());
+        String eTag = principal.getId() + "-" + ordersVersion.getOrdersCount() + "-" + ordersVersion.getOrdersLastModified()
+                + "-" + ordersVersion.getProductsLastModified();
+        boolean notModified = ordersVersion.getLastModified() == null
+                ? webRequest.checkNotModified(eTag)
+                : webRequest.checkNotModified(eTag, ordersVersion.getLastModified().toEpochMilli());
+        if (notModified) {
+            return null;
+        }
+        return orderService.getAllOrders(principal.getId());
     }
 }
@@ -2,25 +2,48 @@ package com.bezro.shopRESTfulAPI.controllers;
 
 import com.bezro.shopRESTfulAPI.constants.ResponseMessages;
 import com.bezro.shopRESTfulAPI.dtos.CreateProductDto;
+import com.bezro.shopRESTfulAPI.dtos.ProductBulkUpdateDto;
+import com.bezro.shopRESTfulAPI.dtos.ProductBulkUpdateResponse;
+import com.bezro.shopRESTfulAPI.dtos.ProductFacetsResponse;
+import com.bezro.shopRESTfulAPI.dtos.ProductFilter;
+import com.bezro.shopRESTfulAPI.dtos.ProductImportResponse;
+import com.bezro.shopRESTfulAPI.dtos.ProductPageResponse;
+import com.bezro.shopRESTfulAPI.dtos.ProductSearchResult;
+import com.bezro.shopRESTfulAPI.dtos.ProductSliceResponse;
 import com.bezro.shopRESTfulAPI.entities.Product;
+import com.bezro.shopRESTfulAPI.entities.ProductFileFormat;
 import com.bezro.shopRESTfulAPI.exceptions.ApiException;
 import com.bezro.shopRESTfulAPI.exceptions.ExceptionResponse;
+import com.bezro.shopRESTfulAPI.services.ProductBulkUpdateService;
+import com.bezro.shopRESTfulAPI.services.ProductExportService;
+import com.bezro.shopRESTfulAPI.services.ProductImportService;
+import com.bezro.shopRESTfulAPI.services.ProductSearchService;
 import com.bezro.shopRESTfulAPI.services.ProductService;
+import com.bezro.shopRESTfulAPI.services.impl.ProductPageResponseCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.Map;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Supplier;
 
 @Slf4j
 @RestController
@@ -29,6 +52,11 @@ import java.util.Map;
 @Tag(description = "Endpoints for selecting, adding, updating and deleting products", name = "Product")
 public class ProductController {
     private final ProductService productService;
+    private final ProductSearchService productSearchService;
+    private final ProductPageResponseCache productPageResponseCache;
+    private final ProductExportService productExportService;
+    private final ProductImportService productImportService;
+    private final ProductBulkUpdateService productBulkUpdateService;
 
     @PostMapping
     @Parameter(in = ParameterIn.HEADER,
@@ -67,31 +95,228 @@ public class ProductController {
     @Operation(summary = "Get all products", description = "Any unauthenticated user can get a list of all products", tags = {"GetAllProducts"})
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful operation",
-                    content = @Content(schema = @Schema(ref = "#/components/schemas/CustomResponse"))),
+                    content = @Content(schema = @Schema(implementation = ProductPageResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the catalog version in If-None-Match"),
             @ApiResponse(responseCode = "204", description = "No content")
     })
-    public Map<String, Object> getProducts(
+    public ResponseEntity<byte[]> getProducts(
             @Parameter(description = "Page number", example = "1", required = true) @RequestParam(defaultValue = "0") int pageNumber,
-            @Parameter(description = "Page size", example = "10", required = true) @RequestParam(defaultValue = "5") int pageSize) {
+            @Parameter(description = "Page size", example = "10", required = true) @RequestParam(defaultValue = "5") int pageSize,
+            @Parameter(description = "Count the products exactly instead of using the estimated total", example = "false")
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @Parameter(description = "Minimum price, inclusive", example = "10") @RequestParam(required = false) Double minPrice,
+            @Parameter(description = "Maximum price, inclusive", example = "50") @RequestParam(required = false) Double maxPrice,
+            @Parameter(description = "Only products in stock", example = "true") @RequestParam(defaultValue = "false") boolean inStock,
+            WebRequest webRequest) {
 
-        log.info("Getting products with pagination: pageNumber={}, pageSize={}", pageNumber, pageSize);
-        return productService.getProductsPagination(pageNumber, pageSize, null);
+        log.info("Getting products with pagination: pageNumber={}, pageSize={}, includeTotal={}", pageNumber, pageSize, includeTotal);
+        ProductFilter filter = new ProductFilter(minPrice, maxPrice, inStock);
+        return productPage(pageKey(pageNumber, pageSize, null, includeTotal, filter),
+                () -> productService.getProductsPagination(pageNumber, pageSize, null, includeTotal, filter), webRequest);
     }
 
     @GetMapping(params = {"pageNumber", "pageSize", "sort"})
     @Operation(summary = "Get all products with sorting", description = "Any unauthenticated user can get a list of all products", tags = {"GetAllProductsSorted"})
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful operation",
-                    content = @Content(schema = @Schema(ref = "#/components/schemas/CustomResponse"))),
-            @ApiResponse(responseCode = "204", description = "No content")
+                    content = @Content(schema = @Schema(implementation = ProductPageResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the catalog version in If-None-Match"),
+            @ApiResponse(responseCode = "204", description = "No content"),
+            @ApiResponse(responseCode = "400", description = "Invalid sort order",
+                    content = @Content(schema = @Schema(implementation = ExceptionResponse.class)))
     })
-    public Map<String, Object> getProducts(
+    public ResponseEntity<byte[]> getProducts(
             @Parameter(description = "Page number", example = "1", required = true) @RequestParam(defaultValue = "0") int pageNumber,
             @Parameter(description = "Page size", example = "10", required = true) @RequestParam(defaultValue = "5") int pageSize,
-            @Parameter(description = "Sort order", example = "name", required = true) @RequestParam(defaultValue = "name") String sort) {
+            @Parameter(description = "Sort order: comma separated id, name or price, each with an optional :asc or :desc",
+                    example = "price:desc,name", required = true) @RequestParam(defaultValue = "name") String sort,
+            @Parameter(description = "Count the products exactly instead of using the estimated total", example = "false")
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @Parameter(description = "Minimum price, inclusive", example = "10") @RequestParam(required = false) Double minPrice,
+            @Parameter(description = "Maximum price, inclusive", example = "50") @RequestParam(required = false) Double maxPrice,
+            @Parameter(description = "Only products in stock", example = "true") @RequestParam(defaultValue = "false") boolean inStock,
+            WebRequest webRequest) {
+
+        log.info("Getting products with pagination and sorting: pageNumber={}, pageSize={}, sort={}, includeTotal={}",
+                pageNumber, pageSize, sort, includeTotal);
+        ProductFilter filter = new ProductFilter(minPrice, maxPrice, inStock);
+        return productPage(pageKey(pageNumber, pageSize, sort, includeTotal, filter),
+                () -> productService.getProductsPagination(pageNumber, pageSize, sort, includeTotal, filter), webRequest);
+    }
+
+    //Sort fields and directions are case-insensitive, so the key is too
+    private String pageKey(int pageNumber, int pageSize, String sort, boolean includeTotal, ProductFilter filter) {
+        return pageNumber + "|" + pageSize + "|" + (sort == null ? "" : sort.toLowerCase()) + "|" + includeTotal + "|" + filter;
+    }
+
+    //Listing pages are copied from the already encoded, and when accepted already gzipped, cached bytes
+    private ResponseEntity<byte[]> productPage(String key, Supplier<ProductPageResponse> loader, WebRequest webRequest) {
+        String catalogVersion = productService.getCatalogVersion();
+        String acceptEncoding = webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = productPageResponseCache.isGzipEnabled()
+                && acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        //Each encoding is a different representation, so it gets its own strong ETag
+        if (webRequest.checkNotModified(gzip ? catalogVersion + "-gzip" : catalogVersion)) {
+            return null;
+        }
+        ProductPageResponseCache.EncodedResponse response = productPageResponseCache.get(catalogVersion, key, loader);
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return responseBuilder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(response.getGzippedBody());
+        }
+        return responseBuilder.body(response.getBody());
+    }
+
+    @GetMapping("/scroll")
+    @Operation(summary = "Scroll products",
+            description = "Any unauthenticated user can get products slice by slice. The cost of a slice does not depend on its position",
+            tags = {"ScrollProducts"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation",
+                    content = @Content(schema = @Schema(implementation = ProductSliceResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the catalog version in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, size or sort",
+                    content = @Content(schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    public ProductSliceResponse scrollProducts(
+            @Parameter(description = "Cursor of the previous slice, omit for the first slice") @RequestParam(required = false) String after,
+            @Parameter(description = "Slice size", example = "20") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Sort order: id, name or price", example = "name") @RequestParam(defaultValue = "id") String sort,
+            @Parameter(description = "Minimum price, inclusive", example = "10") @RequestParam(required = false) Double minPrice,
+            @Parameter(description = "Maximum price, inclusive", example = "50") @RequestParam(required = false) Double maxPrice,
+            @Parameter(description = "Only products in stock", example = "true") @RequestParam(defaultValue = "false") boolean inStock,
+            WebRequest webRequest) {
+
+        log.info("Scrolling products: after={}, size={}, sort={}", after, size, sort);
+        if (webRequest.checkNotModified(productService.getCatalogVersion())) {
+            return null;
+        }
+        return productService.scrollProducts(after, size, sort, new ProductFilter(minPrice, maxPrice, inStock));
+    }
+
+    @GetMapping("/facets")
+    @Operation(summary = "Get product facets",
+            description = "Any unauthenticated user can get the price histogram and stock counts of the products matching the filter",
+            tags = {"GetProductFacets"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation",
+                    content = @Content(schema = @Schema(implementation = ProductFacetsResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the catalog version in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid bucket size or price range",
+                    content = @Content(schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    public ProductFacetsResponse getProductFacets(
+            @Parameter(description = "Width of a price bucket", example = "10") @RequestParam(defaultValue = "10") double bucketSize,
+            @Parameter(description = "Minimum price, inclusive", example = "10") @RequestParam(required = false) Double minPrice,
+            @Parameter(description = "Maximum price, inclusive", example = "50") @RequestParam(required = false) Double maxPrice,
+            @Parameter(description = "Only products in stock", example = "true") @RequestParam(defaultValue = "false") boolean inStock,
+            WebRequest webRequest) {
+
+        log.info("Getting product facets: bucketSize={}", bucketSize);
+        if (webRequest.checkNotModified(productService.getCatalogVersion())) {
+            return null;
+        }
+        return productService.getProductFacets(bucketSize, new ProductFilter(minPrice, maxPrice, inStock));
+    }
 
-        log.info("Getting products with pagination and sorting: pageNumber={}, pageSize={}, sort={}", pageNumber, pageSize, sort);
-        return productService.getProductsPagination(pageNumber, pageSize, sort);
+    @GetMapping("/export")
+    @Parameter(in = ParameterIn.HEADER,
+            description = "Authorization token",
+            name = "JWT",
+            content = @Content(schema = @Schema(type = "string")))
+    @Operation(summary = "Export all products",
+            description = "Admin can download the whole catalog as newline-delimited JSON or CSV, streamed with a single query",
+            tags = {"ExportProducts"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation, one product per line",
+                    content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")}),
+            @ApiResponse(responseCode = "400", description = "Invalid format",
+                    content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden. Only administrators can access this page",
+                    content = @Content(schema = @Schema(implementation = ApiException.class))),
+            @ApiResponse(responseCode = "401", description = "User should be authenticated",
+                    content = @Content(schema = @Schema(implementation = ApiException.class)))
+    })
+    public void exportProducts(
+            @Parameter(description = "Export format: ndjson or csv", example = "ndjson") @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+
+        log.info("Exporting products: format={}", format);
+        ProductFileFormat exportFormat = ProductFileFormat.fromString(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + exportFormat.getExtension() + "\"");
+        productExportService.exportProducts(exportFormat, response.getOutputStream());
+    }
+
+    @PostMapping("/import")
+    @Parameter(in = ParameterIn.HEADER,
+            description = "Authorization token",
+            name = "JWT",
+            content = @Content(schema = @Schema(type = "string")))
+    @Operation(summary = "Import products",
+            description = "Admin can add or update many products from newline-delimited JSON or CSV, saved in chunks. "
+                    + "Invalid lines are skipped and reported with their line number",
+            tags = {"ImportProducts"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation",
+                    content = @Content(schema = @Schema(implementation = ProductImportResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid format, chunk size or CSV header",
+                    content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden. Only administrators can access this page",
+                    content = @Content(schema = @Schema(implementation = ApiException.class))),
+            @ApiResponse(responseCode = "401", description = "User should be authenticated",
+                    content = @Content(schema = @Schema(implementation = ApiException.class)))
+    })
+    public ProductImportResponse importProducts(
+            @Parameter(description = "Import format: ndjson or csv", example = "ndjson") @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Lines saved per transaction, at most 10000", example = "1000") @RequestParam(required = false) Integer chunkSize,
+            @Parameter(description = "Update the existing product with the same name instead of adding a new one", example = "true")
+            @RequestParam(defaultValue = "false") boolean upsert,
+            HttpServletRequest request) throws IOException {
+
+        log.info("Importing products: format={}, chunkSize={}, upsert={}", format, chunkSize, upsert);
+        //The body is read as a stream, it is never buffered whole
+        return productImportService.importProducts(ProductFileFormat.fromString(format), request.getInputStream(),
+                chunkSize, upsert);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search products",
+            description = "Any unauthenticated user can search products containing all words of the query in their name or description",
+            tags = {"SearchProducts"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation, the most relevant products first",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = ProductSearchResult.class)))),
+            @ApiResponse(responseCode = "400", description = "Query without words or invalid limit",
+                    content = @Content(schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    public List<ProductSearchResult> searchProducts(
+            @Parameter(description = "Search query", example = "red shoes", required = true) @RequestParam String q,
+            @Parameter(description = "Maximum number of results, at most 100", example = "20") @RequestParam(defaultValue = "20") int limit) {
+
+        log.info("Searching products: q={}, limit={}", q, limit);
+        return productSearchService.search(q, limit);
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest product names",
+            description = "Any unauthenticated user can get product names starting with the typed prefix",
+            tags = {"SuggestProducts"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation, names in alphabetical order",
+                    content = @Content(array = @ArraySchema(schema = @Schema(type = "string")))),
+            @ApiResponse(responseCode = "400", description = "Empty prefix or invalid limit",
+                    content = @Content(schema = @Schema(implementation = ExceptionResponse.class)))
+    })
+    public List<String> suggestProducts(
+            @Parameter(description = "Beginning of the product name", example = "red", required = true) @RequestParam String prefix,
+            @Parameter(description = "Maximum number of names, at most 100", example = "10") @RequestParam(defaultValue = "10") int limit) {
+
+        log.info("Suggesting product names: prefix={}, limit={}", prefix, limit);
+        return productSearchService.suggest(prefix, limit);
     }
 
     @PutMapping("/{id}")
@@ -129,6 +354,42 @@ public class ProductController {
         return productService.updateProduct(id, productDto);
     }
 
+    @PatchMapping
+    @Parameter(in = ParameterIn.HEADER,
+            description = "Authorization token",
+            name = "JWT",
+            content = @Content(schema = @Schema(type = "string")))
+    @Operation(summary = "Update prices and stock of many products",
+            description = "Admin can set the price and add or remove stock of many products at once, "
+                    + "every update gets its own result",
+            tags = {"UpdateProducts"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful operation",
+                    content = @Content(schema = @Schema(implementation = ProductBulkUpdateResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Too many updates",
+                    content = @Content(schema = @Schema(implementation = ExceptionResponse.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden. Only administrators can access this page",
+                    content = @Content(schema = @Schema(implementation = ApiException.class))),
+            @ApiResponse(responseCode = "401", description = "User should be authenticated",
+                    content = @Content(schema = @Schema(implementation = ApiException.class)))
+    })
+    public ProductBulkUpdateResponse updateProducts(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Updates, a missing price or quantityDelta leaves that field unchanged",
+                    required = true,
+                    content = @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = ProductBulkUpdateDto.class)),
+                            examples = @ExampleObject(
+                                    value = "[{\"id\":1, \"price\":9.5}, {\"id\":2, \"quantityDelta\":-3}]"
+                            )
+                    )
+            )
+            @RequestBody List<ProductBulkUpdateDto> updates) {
+        log.info("Updating {} products", updates.size());
+        return productBulkUpdateService.updateProducts(updates);
+    }
+
     @DeleteMapping("/{id}")
     @Parameter(in = ParameterIn.HEADER,
             description = "Authorization token",
@@ -0,0 +1,22 @@
+package com.bezro.shopRESTfulAPI.dtos;
+
+import java.time.Instant;
+
+// Enough to tell if the orders of a user changed, without loading them
+public interface OrdersVersion {
+    Long getOrdersCount();
+
+    //Null when the user has no orders
+    Instant getOrdersLastModified();
+
+    //Last write of the products in the orders, they are embedded in the order items. Null when never written
+    Instant getProductsLastModified();
+
+    default Instant getLastModified() {
+        Instant productsLastModified = getProductsLastModified();
+        if (productsLastModified == null || getOrdersLastModified() == null) {
+            return getOrdersLastModified();
+        }
+        return productsLastModified.isAfter(getOrdersLastModified()) ? productsLastModified : getOrdersLastModified();
+    }
+}
@@ -0,0 +1,16 @@
+package com.bezro.shopRESTfulAPI.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PriceBucket {
+    //Inclusive
+    private double fromPrice;
+
+    //Exclusive
+    private double toPrice;
+
+    private long productsCount;
+}
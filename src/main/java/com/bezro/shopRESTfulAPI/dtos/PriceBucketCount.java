@@ -0,0 +1,10 @@
+package com.bezro.shopRESTfulAPI.dtos;
+
+// One row of the grouped facet query: the bucket number and its product counts
+public interface PriceBucketCount {
+    Double getBucket();
+
+    Long getProductsCount();
+
+    Long getInStockCount();
+}
@@ -0,0 +1,14 @@
+package com.bezro.shopRESTfulAPI.dtos;
+
+import lombok.Data;
+
+@Data
+public class ProductBulkUpdateDto {
+    private Long id;
+
+    //New price, the price is kept when null
+    private Double price;
+
+    //Added to the stock, negative to remove stock; the stock is kept when null
+    private Double quantityDelta;
+}
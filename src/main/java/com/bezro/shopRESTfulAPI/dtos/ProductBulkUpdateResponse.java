@@ -0,0 +1,16 @@
+package com.bezro.shopRESTfulAPI.dtos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ProductBulkUpdateResponse {
+    private long updatedCount;
+
+    private long failedCount;
+
+    //One result per update, in the request order
+    private List<ProductBulkUpdateResult> results = new ArrayList<>();
+}
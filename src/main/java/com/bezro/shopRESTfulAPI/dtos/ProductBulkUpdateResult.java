@@ -0,0 +1,16 @@
+package com.bezro.shopRESTfulAPI.dtos;
+
+import com.bezro.shopRESTfulAPI.entities.ProductUpdateStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ProductBulkUpdateResult {
+    private Long id;
+
+    private ProductUpdateStatus status;
+
+    //Reason of a rejected update, null when updated
+    private String message;
+}
@@ -0,0 +1,51 @@
+package com.bezro.shopRESTfulAPI.dtos;
+
+import com.bezro.shopRESTfulAPI.entities.Product;
+import com.bezro.shopRESTfulAPI.entities.ProductSortField;
+import com.bezro.shopRESTfulAPI.exceptions.InvalidMethodArgumentsException;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Position after the last product of a page: its sort field, sort value and id.
+// Clients get it as an opaque URL-safe string and send it back unchanged
+@Value
+public class ProductCursor {
+    private static final String SEPARATOR = "\n";
+
+    ProductSortField sortField;
+
+    Long id;
+
+    String value;
+
+    public static ProductCursor after(Product product, ProductSortField sortField) {
+        String value = switch (sortField) {
+            case ID -> String.valueOf(product.getId());
+            case NAME -> product.getName();
+            case PRICE -> String.valueOf(product.getPrice());
+        };
+        return new ProductCursor(sortField, product.getId(), value);
+    }
+
+    public String encode() {
+        String cursor = sortField.name() + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String encodedCursor) {
+        try {
+            String cursor = new String(Base64.getUrlDecoder().decode(encodedCursor), StandardCharsets.UTF_8);
+            String[] parts = cursor.split(SEPARATOR, 3);
+            ProductSortField sortField = ProductSortField.valueOf(parts[0]);
+            Long id = Long.valueOf(parts[1]);
+            if (sortField == ProductSortField.PRICE) {
+                Double.parseDouble(parts[2]);
+            }
+            return new ProductCursor(sortField, id, parts[2]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidMethodArgumentsException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.bezro.shopRESTfulAPI.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProductFacetsResponse {
+    //Only buckets containing products, ordered by price
+    private List<PriceBucket> priceBuckets;
+
+    private long inStockCount;
+
+    private long outOfStockCount;
+}
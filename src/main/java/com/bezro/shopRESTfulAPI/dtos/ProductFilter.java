@@ -0,0 +1,25 @@
+package com.bezro.shopRESTfulAPI.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilter {
+    private Double minPrice;
+
+    private Double maxPrice;
+
+    //Only products with quantity greater than 0
+    private boolean inStock;
+
+    public static ProductFilter none() {
+        return new ProductFilter();
+    }
+
+    public boolean hasConditions() {
+        return minPrice != null || maxPrice != null || inStock;
+    }
+}
@@ -0,0 +1,13 @@
+package com.bezro.shopRESTfulAPI.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ProductImportError {
+    //Line of the request body, starting at 1
+    private long line;
+
+    private String message;
+}
@@ -0,0 +1,18 @@
+package com.bezro.shopRESTfulAPI.dtos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ProductImportResponse {
+    private long createdCount;
+
+    private long updatedCount;
+
+    private long failedCount;
+
+    //Only the first errors are reported, failedCount has the total
+    private List<ProductImportError> errors = new ArrayList<>();
+}
@@ -0,0 +1,21 @@
+package com.bezro.shopRESTfulAPI.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProductPageResponse {
+    private List<ProductSummary> products;
+
+    private int currentPage;
+
+    private long totalItems;
+
+    private int totalPages;
+
+    //False when totalItems is the estimated product count
+    private boolean totalExact;
+}
@@ -0,0 +1,17 @@
+package com.bezro.shopRESTfulAPI.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ProductSearchResult {
+    private Long id;
+
+    private String name;
+
+    private double price;
+
+    //Higher is more relevant, only comparable within the same search
+    private double score;
+}
@@ -0,0 +1,18 @@
+package com.bezro.shopRESTfulAPI.dtos;
+
+import com.bezro.shopRESTfulAPI.entities.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProductSliceResponse {
+    private List<Product> products;
+
+    private boolean hasNext;
+
+    //Pass as "after" to get the next slice, null on the last slice
+    private String nextCursor;
+}
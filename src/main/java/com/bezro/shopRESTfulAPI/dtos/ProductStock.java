@@ -0,0 +1,7 @@
+package com.bezro.shopRESTfulAPI.dtos;
+
+public interface ProductStock {
+    Long getId();
+
+    Double getQuantity();
+}
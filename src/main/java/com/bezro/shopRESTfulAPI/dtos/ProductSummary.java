@@ -0,0 +1,12 @@
+package com.bezro.shopRESTfulAPI.dtos;
+
+// Product fields shown in the listing, the description is only loaded with the full product
+public interface ProductSummary {
+    Long getId();
+
+    String getName();
+
+    Double getPrice();
+
+    Double getQuantity();
+}
@@ -23,6 +23,9 @@ public class Order {
     @Column(nullable = false)
     private OrderStatus status;
 
+    //Set on every status change, the Last-Modified of the user orders is based on it
+    private Instant updatedAt;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_id", nullable = false)
     @OnDelete(action = OnDeleteAction.CASCADE)
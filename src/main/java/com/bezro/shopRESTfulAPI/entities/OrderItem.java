@@ -8,6 +8,7 @@ import lombok.Data;
 @Data
 @Table(name = "order_items")
 public class OrderItem {
+    // Checkout inserts order items in a JDBC batch, the ids come back as generated keys
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -1,11 +1,25 @@
 package com.bezro.shopRESTfulAPI.entities;
 
+import com.bezro.shopRESTfulAPI.constants.CacheNames;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
+
+// Loaded with every cart and order item, so it is kept in the second-level cache.
+// The @Index declarations are the only definition of the indexes, Hibernate creates them with the schema
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheNames.PRODUCT_ENTITIES)
 @Data
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_name_id", columnList = "name, id"),
+        @Index(name = "idx_products_price_id", columnList = "price, id")
+})
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -21,4 +35,9 @@ public class Product {
 
     @Column(nullable = false)
     private double quantity;
+
+    //Set on every write, also by the JDBC stock and bulk writes. The orders embedding the product are outdated by it
+    @JsonIgnore
+    @UpdateTimestamp
+    private Instant updatedAt;
 }
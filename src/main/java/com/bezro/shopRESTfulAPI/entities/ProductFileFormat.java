@@ -0,0 +1,27 @@
+package com.bezro.shopRESTfulAPI.entities;
+
+import com.bezro.shopRESTfulAPI.exceptions.InvalidMethodArgumentsException;
+import lombok.Getter;
+
+@Getter
+public enum ProductFileFormat {
+    NDJSON("ndjson", "application/x-ndjson"),
+    CSV("csv", "text/csv");
+
+    private final String extension;
+    private final String contentType;
+
+    ProductFileFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public static ProductFileFormat fromString(String format) {
+        for (ProductFileFormat exportFormat : ProductFileFormat.values()) {
+            if (exportFormat.extension.equalsIgnoreCase(format)) {
+                return exportFormat;
+            }
+        }
+        throw new InvalidMethodArgumentsException(String.format("Not supported product file format: %s", format));
+    }
+}
@@ -0,0 +1,27 @@
+package com.bezro.shopRESTfulAPI.entities;
+
+import com.bezro.shopRESTfulAPI.exceptions.InvalidMethodArgumentsException;
+import lombok.Getter;
+
+// Product fields clients may sort by, each one is backed by an index ending with the id
+@Getter
+public enum ProductSortField {
+    ID("id"),
+    NAME("name"),
+    PRICE("price");
+
+    private final String property;
+
+    ProductSortField(String property) {
+        this.property = property;
+    }
+
+    public static ProductSortField fromString(String property) {
+        for (ProductSortField sortField : ProductSortField.values()) {
+            if (sortField.property.equalsIgnoreCase(property)) {
+                return sortField;
+            }
+        }
+        throw new InvalidMethodArgumentsException(String.format("Products cannot be sorted by: %s", property));
+    }
+}
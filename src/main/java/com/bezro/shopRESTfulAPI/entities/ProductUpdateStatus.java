@@ -0,0 +1,9 @@
+package com.bezro.shopRESTfulAPI.entities;
+
+public enum ProductUpdateStatus {
+    UPDATED,
+    INVALID,
+    NOT_FOUND,
+    INSUFFICIENT_STOCK,
+    FAILED
+}
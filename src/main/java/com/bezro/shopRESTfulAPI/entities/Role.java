@@ -1,13 +1,19 @@
 package com.bezro.shopRESTfulAPI.entities;
 
+import com.bezro.shopRESTfulAPI.constants.CacheNames;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
+// Roles are only ever inserted at startup, so the cached copies never need to be invalidated
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CacheNames.ROLE_ENTITIES)
 @Data
 @Table(name = "roles")
 public class Role {
@@ -1,5 +1,6 @@
 package com.bezro.shopRESTfulAPI.entities;
 
+import com.bezro.shopRESTfulAPI.jwtUtils.AuthenticatedUser;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -18,7 +19,7 @@ import java.util.stream.Collectors;
 @NoArgsConstructor
 @Table(name = "users")
 //TODO: use Builder pattern (@Builder)
-public class User implements UserDetails {
+public class User implements UserDetails, AuthenticatedUser {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
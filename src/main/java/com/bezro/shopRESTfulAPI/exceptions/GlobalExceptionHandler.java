@@ -1,6 +1,7 @@
 package com.bezro.shopRESTfulAPI.exceptions;
 
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -56,6 +57,15 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiRequestException, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler({PasswordHashingBusyException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseEntity<ApiException> handlePasswordHashingBusyException(PasswordHashingBusyException exception) {
+        ApiException apiException = new ApiException(HttpStatus.SERVICE_UNAVAILABLE.value(), exception.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body(apiException);
+    }
+
     @ExceptionHandler({NoContentException.class})
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public ResponseEntity<ApiException> handleNoContentException(NoContentException exception) {
@@ -0,0 +1,8 @@
+package com.bezro.shopRESTfulAPI.jwtUtils;
+
+// Identity of the logged-in user, available without loading the user from the database
+public interface AuthenticatedUser {
+    Long getId();
+
+    String getUsername();
+}
@@ -0,0 +1,87 @@
+package com.bezro.shopRESTfulAPI.jwtUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.function.Function;
+
+@Slf4j
+@Component
+public class JwtTokenCache {
+    public static final String CACHE_NAME = "jwt.verified-tokens";
+
+    private final boolean enabled;
+    private final Cache<String, VerifiedToken> cache;
+
+    public JwtTokenCache(@Value("${jwt.cache.enabled:true}") boolean enabled,
+                         @Value("${jwt.cache.maximum-size:10000}") long maximumSize,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        log.info("Verified JWT cache enabled: {}, maximum size: {}", enabled, maximumSize);
+    }
+
+    // Returns the cached result for the token, or verifies it and caches the result until the token expires.
+    // Tokens that fail verification are never cached, the verifier exception is rethrown
+    public VerifiedToken get(String token, Function<String, VerifiedToken> verifier) {
+        if (!enabled) {
+            return verifier.apply(token);
+        }
+        String key = hash(token);
+        VerifiedToken verifiedToken = cache.get(key, k -> verifier.apply(token));
+        if (verifiedToken != null && !verifiedToken.getExpiresAt().isAfter(Instant.now())) {
+            //The entry expires together with the token, this only covers the race at the expiry instant
+            cache.invalidate(key);
+            return verifier.apply(token);
+        }
+        return verifiedToken;
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    //Only a digest of the token is kept in memory, not the bearer credential itself
+    private String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.getExpiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package com.bezro.shopRESTfulAPI.jwtUtils;
 
+import com.bezro.shopRESTfulAPI.constants.JwtConstants;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.time.Duration;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -24,31 +28,42 @@ public class JwtTokenUtils {
     //TODO: put this value in props and get using @Value()
     //@Value("${jwt.lifetime}")
     private Duration jwtLifetime = Duration.ofMinutes(30);
+    //The key and the parser are immutable and thread-safe, so they are built once and shared by all requests
+    private final Key signKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    private final JwtParser jwtParser = Jwts.parserBuilder()
+            .setSigningKey(signKey)
+            .build();
 
     public String generateToken(UserDetails userDetails) {
+        return generateToken(userDetails.getUsername(), userDetails, userDetails.getAuthorities());
+    }
+
+    //Uses the authorities already resolved by the authentication manager, so the user is not loaded again
+    public String generateToken(Authentication authentication) {
+        return generateToken(authentication.getName(), authentication.getPrincipal(), authentication.getAuthorities());
+    }
+
+    private String generateToken(String username, Object principal, Collection<? extends GrantedAuthority> authorities) {
         Map<String, Object> claims = new HashMap<>();
-        List<String> rolesList = userDetails.getAuthorities().stream()
+        List<String> rolesList = authorities.stream()
                 .map(GrantedAuthority::getAuthority)
                 .toList();
-        claims.put("roles", rolesList);
-        //TODO: add id into claims
+        claims.put(JwtConstants.ROLES_CLAIM, rolesList);
+        if (principal instanceof AuthenticatedUser authenticatedUser) {
+            claims.put(JwtConstants.USER_ID_CLAIM, authenticatedUser.getId());
+        }
 
         Date issuedDate = new Date();
         Date exriredDate = new Date(issuedDate.getTime() + jwtLifetime.toMillis());
         return Jwts.builder()
                 .setClaims(claims)
-                .setSubject(userDetails.getUsername())
+                .setSubject(username)
                 .setIssuedAt(issuedDate)
                 .setExpiration(exriredDate)
-                .signWith(getSignKey(), SignatureAlgorithm.HS256)
+                .signWith(signKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private Key getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     public String getUsername(String token) {
         return getAllClaimsFromToken(token).getSubject();
     }
@@ -62,14 +77,14 @@ public class JwtTokenUtils {
     }
 
     public List<?> getRoles(String token) {
-        return getAllClaimsFromToken(token).get("roles", List.class);
+        return getAllClaimsFromToken(token).get(JwtConstants.ROLES_CLAIM, List.class);
+    }
+
+    public Long getUserId(String token) {
+        return getAllClaimsFromToken(token).get(JwtConstants.USER_ID_CLAIM, Long.class);
     }
 
-    public Claims getAllClaimsFromToken (String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public Claims getAllClaimsFromToken(String token) {
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 }
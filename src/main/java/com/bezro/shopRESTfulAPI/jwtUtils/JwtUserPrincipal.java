@@ -0,0 +1,16 @@
+package com.bezro.shopRESTfulAPI.jwtUtils;
+
+import lombok.Value;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+@Value
+public class JwtUserPrincipal implements AuthenticatedUser, AuthenticatedPrincipal {
+    Long id;
+
+    String username;
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
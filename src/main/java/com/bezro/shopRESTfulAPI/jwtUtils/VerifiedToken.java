@@ -0,0 +1,16 @@
+package com.bezro.shopRESTfulAPI.jwtUtils;
+
+import lombok.Value;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+@Value
+public class VerifiedToken {
+    JwtUserPrincipal principal;
+
+    List<GrantedAuthority> authorities;
+
+    Instant expiresAt;
+}
@@ -3,8 +3,12 @@ package com.bezro.shopRESTfulAPI.repositories;
 import com.bezro.shopRESTfulAPI.dtos.CreateCartItemDto;
 import com.bezro.shopRESTfulAPI.entities.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +19,10 @@ public interface CartRepository extends JpaRepository<CartItem, Long> {
     CartItem save(CreateCartItemDto cartItemDto);
 
     Optional<List<CartItem>> findByUser_Id(Long userId);
+
+    // One DELETE statement for the whole cart, whatever its size.
+    // Only the given items are deleted, an item added meanwhile stays in the cart
+    @Modifying
+    @Query("DELETE FROM CartItem c WHERE c.user.id = :userId AND c.id IN :ids")
+    int deleteAllByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
 }
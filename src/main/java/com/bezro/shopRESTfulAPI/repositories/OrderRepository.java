@@ -1,7 +1,10 @@
 package com.bezro.shopRESTfulAPI.repositories;
 
+import com.bezro.shopRESTfulAPI.dtos.OrdersVersion;
 import com.bezro.shopRESTfulAPI.entities.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +12,10 @@ import java.util.List;
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findAllByUser_Id(Long userId);
+
+    // Orders stored before updatedAt existed fall back to their creation time
+    @Query("SELECT COUNT(DISTINCT o) AS ordersCount, MAX(COALESCE(o.updatedAt, o.createdAt)) AS ordersLastModified,"
+            + " MAX(p.updatedAt) AS productsLastModified"
+            + " FROM Order o LEFT JOIN o.orderItems i LEFT JOIN i.product p WHERE o.user.id = :userId")
+    OrdersVersion findVersionByUserId(@Param("userId") Long userId);
 }
\ No newline at end of file
@@ -1,9 +1,88 @@
 package com.bezro.shopRESTfulAPI.repositories;
 
+import com.bezro.shopRESTfulAPI.dtos.PriceBucketCount;
+import com.bezro.shopRESTfulAPI.dtos.ProductFilter;
+import com.bezro.shopRESTfulAPI.dtos.ProductStock;
+import com.bezro.shopRESTfulAPI.dtos.ProductSummary;
 import com.bezro.shopRESTfulAPI.entities.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    // Locks the rows in id order, so overlapping checkouts always acquire them in the same order
+    @Query(value = "SELECT id, quantity FROM products WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<ProductStock> findStockForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Listing filter shared by the queries below, a condition is switched off by a null bound or inStock = false.
+    // The MySQL driver inlines the values into the statement, so the optimizer drops the switched off conditions
+    // and a price range is read from the (price, id) index
+    String FILTER = "(:#{#filter.minPrice} IS NULL OR p.price >= :#{#filter.minPrice})"
+            + " AND (:#{#filter.maxPrice} IS NULL OR p.price <= :#{#filter.maxPrice})"
+            + " AND (:#{#filter.inStock} = FALSE OR p.quantity > 0)";
+
+    // Keyset pagination: each query seeks past the (sort key, id) of the last returned product,
+    // so it reads the matching index from that position instead of skipping OFFSET rows.
+    // A Slice fetches one extra row to know if there is a next slice and never runs a count query
+    @Query("SELECT p FROM Product p WHERE " + FILTER)
+    Slice<Product> findAllBy(@Param("filter") ProductFilter filter, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.id > :id AND " + FILTER + " ORDER BY p.id")
+    Slice<Product> findAllAfterId(@Param("id") Long id, @Param("filter") ProductFilter filter, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE (p.name > :name OR (p.name = :name AND p.id > :id)) AND " + FILTER
+            + " ORDER BY p.name, p.id")
+    Slice<Product> findAllAfterName(@Param("name") String name, @Param("id") Long id,
+                                    @Param("filter") ProductFilter filter, Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE (p.price > :price OR (p.price = :price AND p.id > :id)) AND " + FILTER
+            + " ORDER BY p.price, p.id")
+    Slice<Product> findAllAfterPrice(@Param("price") double price, @Param("id") Long id,
+                                     @Param("filter") ProductFilter filter, Pageable pageable);
+
+    // Listing pages select only the summary columns, no entities are created or tracked for them
+    @Query(value = "SELECT p.id AS id, p.name AS name, p.price AS price, p.quantity AS quantity FROM Product p WHERE " + FILTER,
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE " + FILTER)
+    Page<ProductSummary> findAllProjectedBy(@Param("filter") ProductFilter filter, Pageable pageable);
+
+    @Query("SELECT p.id AS id, p.name AS name, p.price AS price, p.quantity AS quantity FROM Product p WHERE " + FILTER)
+    Slice<ProductSummary> findSliceProjectedBy(@Param("filter") ProductFilter filter, Pageable pageable);
+
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Upsert lookup of the import, one query per chunk served by the (name, id) index
+    List<Product> findAllByNameIn(Collection<String> names);
+
+    // Forward-only read of the whole catalog for the export. The MySQL driver only streams the rows
+    // with this fetch size, with any other value it reads the whole result into memory first.
+    // The export does not go through the second-level cache, it would only push out the often read products
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAllBy();
+
+    // All facets of the filter sidebar in one pass: products per price bucket, and how many of them are in stock.
+    // The stock counts of the whole filter are the sums over the buckets
+    @Query("SELECT FLOOR(p.price / :bucketSize) AS bucket, COUNT(p) AS productsCount,"
+            + " SUM(CASE WHEN p.quantity > 0 THEN 1 ELSE 0 END) AS inStockCount"
+            + " FROM Product p WHERE " + FILTER
+            + " GROUP BY FLOOR(p.price / :bucketSize) ORDER BY bucket")
+    List<PriceBucketCount> countByPriceBucket(@Param("bucketSize") double bucketSize,
+                                              @Param("filter") ProductFilter filter);
 }
@@ -1,12 +1,22 @@
 package com.bezro.shopRESTfulAPI.repositories;
 
+import com.bezro.shopRESTfulAPI.constants.CacheNames;
 import com.bezro.shopRESTfulAPI.entities.Role;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Integer> {
+    // The result (the role id) comes from the query cache and the role from the entity cache,
+    // so registrations do not query the roles table; a role insert invalidates the cached results
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheNames.ROLE_QUERIES)
+    })
     Optional<Role> findByName(String userRole);
 }
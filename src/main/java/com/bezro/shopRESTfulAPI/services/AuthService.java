@@ -1,12 +1,12 @@
 package com.bezro.shopRESTfulAPI.services;
 
 import com.bezro.shopRESTfulAPI.dtos.JwtResponse;
-import com.bezro.shopRESTfulAPI.dtos.LoginUserDto;
 import com.bezro.shopRESTfulAPI.dtos.RegistrationUserDto;
 import com.bezro.shopRESTfulAPI.dtos.UserDto;
+import org.springframework.security.core.Authentication;
 
 public interface AuthService {
-    JwtResponse login(LoginUserDto loginRequest);
+    JwtResponse login(Authentication authentication);
 
     UserDto createNewUser(RegistrationUserDto registrationUserDto);
 }
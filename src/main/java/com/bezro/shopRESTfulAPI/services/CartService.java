@@ -4,16 +4,19 @@ import com.bezro.shopRESTfulAPI.dtos.CartItemResponse;
 import com.bezro.shopRESTfulAPI.dtos.CreateCartItemDto;
 import com.bezro.shopRESTfulAPI.entities.CartItem;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CartService {
-    CartItemResponse addCartItem(CreateCartItemDto cartItemDto, String username);
+    CartItemResponse addCartItem(CreateCartItemDto cartItemDto, Long userId);
 
-    CartItemResponse updateCartItemQuantity(CreateCartItemDto cartItemDto, String username, Long cartItemId);
+    CartItemResponse updateCartItemQuantity(CreateCartItemDto cartItemDto, Long userId, Long cartItemId);
 
     void removeCartItem(Long id);
 
-    List<CartItemResponse> getAllCartItems(String username);
+    void clearCart(Long userId, Collection<Long> cartItemIds);
+
+    List<CartItemResponse> getAllCartItemResponses(Long userId);
 
     List<CartItem> getAllCartItems(Long userId);
 }
\ No newline at end of file
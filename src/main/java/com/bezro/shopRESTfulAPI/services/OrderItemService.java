@@ -7,7 +7,7 @@ import com.bezro.shopRESTfulAPI.entities.OrderItem;
 import java.util.List;
 
 public interface OrderItemService {
-    void createOrderItem(CartItem cartItem, Order order);
+    List<OrderItem> createOrderItems(List<CartItem> cartItems, Order order);
 
     List<OrderItem> getAllOrderItems(Long orderId);
 }
\ No newline at end of file
@@ -1,16 +1,19 @@
 package com.bezro.shopRESTfulAPI.services;
 
 import com.bezro.shopRESTfulAPI.dtos.OrderResponse;
+import com.bezro.shopRESTfulAPI.dtos.OrdersVersion;
 import com.bezro.shopRESTfulAPI.dtos.UpdateOrderDto;
 
 import java.util.List;
 
 public interface OrderService {
-    OrderResponse createOrder(String userName);
+    OrderResponse createOrder(Long userId);
 
     OrderResponse updateOrderStatus(UpdateOrderDto updateOrderDto, Long orderId);
 
-    List<OrderResponse> getAllOrders(String userName);
+    List<OrderResponse> getAllOrders(Long userId);
+
+    OrdersVersion getOrdersVersion(Long userId);
 
     //TODO:
 //    Order getOrderById(Long id, Principal principal);
@@ -0,0 +1,10 @@
+package com.bezro.shopRESTfulAPI.services;
+
+import com.bezro.shopRESTfulAPI.dtos.ProductBulkUpdateDto;
+import com.bezro.shopRESTfulAPI.dtos.ProductBulkUpdateResponse;
+
+import java.util.List;
+
+public interface ProductBulkUpdateService {
+    ProductBulkUpdateResponse updateProducts(List<ProductBulkUpdateDto> updates);
+}
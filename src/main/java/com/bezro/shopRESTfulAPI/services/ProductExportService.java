@@ -0,0 +1,10 @@
+package com.bezro.shopRESTfulAPI.services;
+
+import com.bezro.shopRESTfulAPI.entities.ProductFileFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ProductExportService {
+    long exportProducts(ProductFileFormat format, OutputStream outputStream) throws IOException;
+}
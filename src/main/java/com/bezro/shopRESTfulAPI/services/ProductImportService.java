@@ -0,0 +1,12 @@
+package com.bezro.shopRESTfulAPI.services;
+
+import com.bezro.shopRESTfulAPI.dtos.ProductImportResponse;
+import com.bezro.shopRESTfulAPI.entities.ProductFileFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ProductImportService {
+    ProductImportResponse importProducts(ProductFileFormat format, InputStream inputStream, Integer chunkSize,
+                                         boolean upsert) throws IOException;
+}
@@ -0,0 +1,19 @@
+package com.bezro.shopRESTfulAPI.services;
+
+import com.bezro.shopRESTfulAPI.dtos.ProductSearchResult;
+import com.bezro.shopRESTfulAPI.entities.Product;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductSearchService {
+    List<ProductSearchResult> search(String query, int limit);
+
+    List<String> suggest(String prefix, int limit);
+
+    void index(Product product);
+
+    void indexAll(Collection<Product> products);
+
+    void remove(Long productId);
+}
@@ -1,6 +1,10 @@
 package com.bezro.shopRESTfulAPI.services;
 
 import com.bezro.shopRESTfulAPI.dtos.CreateProductDto;
+import com.bezro.shopRESTfulAPI.dtos.ProductFacetsResponse;
+import com.bezro.shopRESTfulAPI.dtos.ProductFilter;
+import com.bezro.shopRESTfulAPI.dtos.ProductPageResponse;
+import com.bezro.shopRESTfulAPI.dtos.ProductSliceResponse;
 import com.bezro.shopRESTfulAPI.entities.Product;
 
 import java.util.Map;
@@ -14,7 +18,13 @@ public interface ProductService {
 
     void deleteProduct(Long id);
 
-    Map<String, Object> getProductsPagination(int pageNumber, int pageSize, String sort);
+    ProductPageResponse getProductsPagination(int pageNumber, int pageSize, String sort, boolean includeTotal, ProductFilter filter);
 
-    void decreaseProductStock(Long productId, double decrementAmount);
+    ProductSliceResponse scrollProducts(String after, int size, String sort, ProductFilter filter);
+
+    String getCatalogVersion();
+
+    ProductFacetsResponse getProductFacets(double bucketSize, ProductFilter filter);
+
+    Map<Long, Double> reserveStock(Map<Long, Double> quantitiesByProductId);
 }
\ No newline at end of file
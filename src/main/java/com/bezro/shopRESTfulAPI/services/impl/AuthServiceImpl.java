@@ -1,7 +1,6 @@
 package com.bezro.shopRESTfulAPI.services.impl;
 
 import com.bezro.shopRESTfulAPI.dtos.JwtResponse;
-import com.bezro.shopRESTfulAPI.dtos.LoginUserDto;
 import com.bezro.shopRESTfulAPI.dtos.RegistrationUserDto;
 import com.bezro.shopRESTfulAPI.dtos.UserDto;
 import com.bezro.shopRESTfulAPI.entities.User;
@@ -11,7 +10,7 @@ import com.bezro.shopRESTfulAPI.jwtUtils.JwtTokenUtils;
 import com.bezro.shopRESTfulAPI.services.AuthService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
 @Slf4j
@@ -21,10 +20,9 @@ public class AuthServiceImpl implements AuthService {
     private final UserService userService;
     private final JwtTokenUtils jwtTokenUtils;
 
-    public JwtResponse login(LoginUserDto loginRequest) {
-        log.info("Logging in user: {}", loginRequest.getUsername());
-        UserDetails userDetails = userService.loadUserByUsername(loginRequest.getUsername());
-        String token = jwtTokenUtils.generateToken(userDetails);
+    public JwtResponse login(Authentication authentication) {
+        log.info("Logging in user: {}", authentication.getName());
+        String token = jwtTokenUtils.generateToken(authentication);
         return new JwtResponse(token);
     }
 
@@ -14,8 +14,10 @@ import com.bezro.shopRESTfulAPI.services.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -28,12 +30,10 @@ public class CartServiceImpl implements CartService {
     private final ProductService productService;
     private final UserService userService;
 
-    public CartItemResponse addCartItem(CreateCartItemDto cartItemDto, String username) {
-        //TODO: extract userId from principal
-        log.info("Adding cart item for user: {}", username);
+    public CartItemResponse addCartItem(CreateCartItemDto cartItemDto, Long principalId) {
+        log.info("Adding cart item for user with id: {}", principalId);
         Long userId = cartItemDto.getUserId();
-        User user = (User) userService.findByUsername(username);
-        userMatchPrincipalCheck(userId, user);
+        userMatchPrincipalCheck(userId, principalId);
 
         Long productId = cartItemDto.getProductId();
         Product product = productService.findById(productId);
@@ -45,7 +45,7 @@ public class CartServiceImpl implements CartService {
             throw new CartItemAlreadyExistsException("Cart item already exists for the given product and user.");
         }
 
-        CartItem cartItem = createCartItemFromDto(cartItemDto, user, product);
+        CartItem cartItem = createCartItemFromDto(cartItemDto, userService.getReferenceById(userId), product);
         CartItem storedCartItem = cartRepository.save(cartItem);
         return new CartItemResponse(storedCartItem);
     }
@@ -66,9 +66,9 @@ public class CartServiceImpl implements CartService {
         }
     }
 
-    private void userMatchPrincipalCheck(Long userId, User user) {
+    private void userMatchPrincipalCheck(Long userId, Long principalId) {
         log.info("Checking if user id matches logged in user id");
-        boolean isUserMatchPrincipal = Objects.equals(userId, user.getId());
+        boolean isUserMatchPrincipal = Objects.equals(userId, principalId);
         if (!isUserMatchPrincipal) {
             throw new InvalidMethodArgumentsException(
                     String.format("User id %d does not match logged in user id", userId));
@@ -79,11 +79,10 @@ public class CartServiceImpl implements CartService {
         return cartRepository.findByProduct_IdAndUser_Id(productId, userId);
     }
 
-    public CartItemResponse updateCartItemQuantity(CreateCartItemDto cartItemDto, String username, Long cartItemId) {
+    public CartItemResponse updateCartItemQuantity(CreateCartItemDto cartItemDto, Long principalId, Long cartItemId) {
         log.info("Updating cart item quantity for cart item ID: {}", cartItemId);
         Long userId = cartItemDto.getUserId();
-        User user = (User) userService.findByUsername(username);
-        userMatchPrincipalCheck(userId, user);
+        userMatchPrincipalCheck(userId, principalId);
 
         Long productId = cartItemDto.getProductId();
         Product product = productService.findById(productId);
@@ -115,10 +114,16 @@ public class CartServiceImpl implements CartService {
         cartRepository.delete(cartItem);
     }
 
-    public List<CartItemResponse> getAllCartItems(String username) {
-        log.info("Getting all cart items for user: {}", username);
-        User user = (User) userService.findByUsername(username);
-        Long userId = user.getId();
+    //Removes the cart items that were ordered, not the ones added to the cart after they were read
+    @Transactional
+    public void clearCart(Long userId, Collection<Long> cartItemIds) {
+        log.info("Clearing cart for user with id: {}", userId);
+        int removedCount = cartRepository.deleteAllByUserIdAndIdIn(userId, cartItemIds);
+        log.info("Removed {} cart items for user with id: {}", removedCount, userId);
+    }
+
+    public List<CartItemResponse> getAllCartItemResponses(Long userId) {
+        log.info("Getting all cart items for user with id: {}", userId);
         List<CartItem> cartItemList = getAllCartItems(userId);
         return cartItemList.stream()
                 .map(CartItemResponse::new).toList();
@@ -4,42 +4,78 @@ import com.bezro.shopRESTfulAPI.entities.CartItem;
 import com.bezro.shopRESTfulAPI.entities.Order;
 import com.bezro.shopRESTfulAPI.entities.OrderItem;
 import com.bezro.shopRESTfulAPI.entities.Product;
-import com.bezro.shopRESTfulAPI.exceptions.NoContentException;
 import com.bezro.shopRESTfulAPI.repositories.OrderItemRepository;
 import com.bezro.shopRESTfulAPI.services.OrderItemService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class OrderItemServiceImpl implements OrderItemService {
+    private static final String INSERT_ORDER_ITEM_SQL =
+            "INSERT INTO order_items (order_id, product_id, quantity, price) VALUES (?, ?, ?, ?)";
+
     private final OrderItemRepository orderItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    //One JDBC batch for all lines, the driver rewrites it into a multi-row INSERT.
+    //Hibernate would insert IDENTITY ids one row at a time
+    public List<OrderItem> createOrderItems(List<CartItem> cartItems, Order order) {
+        log.info("Creating {} order items for order: {}", cartItems.size(), order.getId());
+        List<OrderItem> orderItems = cartItems.stream()
+                .map(cartItem -> createOrderItem(cartItem, order))
+                .toList();
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_ORDER_ITEM_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        OrderItem orderItem = orderItems.get(i);
+                        statement.setLong(1, order.getId());
+                        statement.setLong(2, orderItem.getProduct().getId());
+                        statement.setDouble(3, orderItem.getQuantity());
+                        statement.setDouble(4, orderItem.getPrice());
+                    }
+
+                    public int getBatchSize() {
+                        return orderItems.size();
+                    }
+                },
+                keyHolder);
+        List<Map<String, Object>> generatedKeys = keyHolder.getKeyList();
+        for (int i = 0; i < orderItems.size(); i++) {
+            orderItems.get(i).setId(((Number) generatedKeys.get(i).values().iterator().next()).longValue());
+        }
+        log.info("Order items created successfully for order: {}", order.getId());
+        return orderItems;
+    }
 
-    public void createOrderItem(CartItem cartItem, Order order) {
-        log.info("Creating order item for cart item: {}", cartItem.getId());
+    private OrderItem createOrderItem(CartItem cartItem, Order order) {
         OrderItem orderItem = new OrderItem();
         orderItem.setOrder(order);
         Product product = cartItem.getProduct();
         orderItem.setProduct(product);
         orderItem.setPrice(product.getPrice());
         orderItem.setQuantity(cartItem.getQuantity());
-
-        orderItemRepository.save(orderItem);
-        log.info("Order item created successfully: {}", orderItem.getId());
+        return orderItem;
     }
 
     public List<OrderItem> getAllOrderItems(Long orderId) {
         log.info("Getting all order items for order: {}", orderId);
         List<OrderItem> orderItems = orderItemRepository.findAllByOrder_Id(orderId);
-        if (orderItems.isEmpty()) {
-            log.info("No order items found for order: {}", orderId);
-            throw new NoContentException("No Content");
-        }
-
         log.info("Found {} order items for order: {}", orderItems.size(), orderId);
         return orderItems;
     }
@@ -1,24 +1,26 @@
 package com.bezro.shopRESTfulAPI.services.impl;
 
 import com.bezro.shopRESTfulAPI.dtos.OrderResponse;
+import com.bezro.shopRESTfulAPI.dtos.OrdersVersion;
 import com.bezro.shopRESTfulAPI.dtos.UpdateOrderDto;
 import com.bezro.shopRESTfulAPI.entities.*;
 import com.bezro.shopRESTfulAPI.exceptions.EmptyCartException;
 import com.bezro.shopRESTfulAPI.exceptions.InvalidMethodArgumentsException;
-import com.bezro.shopRESTfulAPI.exceptions.NotEnoughProductStockException;
 import com.bezro.shopRESTfulAPI.repositories.OrderRepository;
 import com.bezro.shopRESTfulAPI.services.CartService;
 import com.bezro.shopRESTfulAPI.services.OrderItemService;
 import com.bezro.shopRESTfulAPI.services.OrderService;
 import com.bezro.shopRESTfulAPI.services.ProductService;
-import jakarta.transaction.Transactional;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -29,61 +31,56 @@ public class OrderServiceImpl implements OrderService {
     private final UserService userService;
     private final CartService cartService;
     private final ProductService productService;
+    private final EntityManager entityManager;
 
     private final OrderStatus INITIAL_ORDER_STATUS = OrderStatus.PROCESSING;
 
     @Transactional
-    public OrderResponse createOrder(String userName) {
-        log.info("Creating order for user: {}", userName);
-        User user = (User) userService.findByUsername(userName);
-        List<CartItem> cartItemList = cartService.getAllCartItems(user.getId());
+    public OrderResponse createOrder(Long userId) {
+        log.info("Creating order for user with id: {}", userId);
+        List<CartItem> cartItemList = cartService.getAllCartItems(userId);
         if (cartItemList.isEmpty()) {
-            log.info("Cannot create order with an empty cart for user: {}", userName);
+            log.info("Cannot create order with an empty cart for user with id: {}", userId);
             throw new EmptyCartException("Cannot create order with an empty cart");
         }
 
-        validateProductStockQuantity(cartItemList);
+        reserveProductStock(cartItemList);
         //Store order
         Order order = new Order();
-        order.setUser(user);
+        order.setUser(userService.getReferenceById(userId));
         order.setCreatedAt(Instant.now());
+        order.setUpdatedAt(order.getCreatedAt());
         order.setStatus(INITIAL_ORDER_STATUS);
         Order orderStored = orderRepository.save(order);
 
         //Store order items
-        convertCartItemsIntoOrderItems(cartItemList, orderStored);
+        List<OrderItem> orderItems = convertCartItemsIntoOrderItems(cartItemList, orderStored);
 
-        List<OrderItem> orderItems = orderItemService.getAllOrderItems(orderStored.getId());
-
-        log.info("Order created successfully for user: {}", userName);
+        log.info("Order created successfully for user with id: {}", userId);
         return createOrderResponse(orderStored, orderItems);
     }
 
     @Transactional
-    public void convertCartItemsIntoOrderItems(List<CartItem> cartItemList, Order order) {
+    public List<OrderItem> convertCartItemsIntoOrderItems(List<CartItem> cartItemList, Order order) {
         log.info("Converting cart items into order items for order: {}", order.getId());
-        cartItemList.forEach(cartItem -> {
-            orderItemService.createOrderItem(cartItem, order);
-            cartService.removeCartItem(cartItem.getId());
-            productService.decreaseProductStock(cartItem.getProduct().getId(), cartItem.getQuantity());
-        });
+        List<OrderItem> orderItems = orderItemService.createOrderItems(cartItemList, order);
+        cartService.clearCart(order.getUser().getId(), cartItemList.stream().map(CartItem::getId).toList());
         log.info("Cart items converted into order items for order: {}", order.getId());
+        return orderItems;
     }
 
-    public void validateProductStockQuantity(List<CartItem> cartItemList) {
-        log.info("Validating product stock quantity for cart items");
-        List<String> errors = new ArrayList<>();
+    public void reserveProductStock(List<CartItem> cartItemList) {
+        log.info("Reserving product stock for cart items");
+        Map<Long, Double> quantitiesByProductId = cartItemList.stream()
+                .collect(Collectors.toMap(cartItem -> cartItem.getProduct().getId(), CartItem::getQuantity, Double::sum));
+        Map<Long, Double> remainingStockByProductId = productService.reserveStock(quantitiesByProductId);
+        //Keep the in-memory products in line with the stock written by the reservation.
+        //Detached first, so the changed stock is not flushed back over the reserved one
         cartItemList.forEach(cartItem -> {
-            double productStock = cartItem.getProduct().getQuantity();
-            if (productStock < cartItem.getQuantity()) {
-                errors.add("Not enough product with id: " + cartItem.getProduct().getId());
-            }
+            Product product = cartItem.getProduct();
+            entityManager.detach(product);
+            product.setQuantity(remainingStockByProductId.get(product.getId()));
         });
-        if (!errors.isEmpty()) {
-            log.info("Product stock quantity validation failed: {}", errors);
-            throw new NotEnoughProductStockException(errors);
-        }
-        log.info("Product stock quantity validation successful");
     }
 
     public Order findById(Long id) {
@@ -98,22 +95,24 @@ public class OrderServiceImpl implements OrderService {
         String statusString = updateOrderDto.getStatus();
         OrderStatus orderStatus = OrderStatus.fromString(statusString);
         order.setStatus(orderStatus);
+        order.setUpdatedAt(Instant.now());
         Order storedOrder = orderRepository.save(order);
         log.info("Order status updated successfully for order: {}", orderId);
         return createOrderResponse(storedOrder, null);
     }
 
-    public List<OrderResponse> getAllOrders(String userName) {
-        log.info("Getting all orders for user: {}", userName);
-        User user = (User) userService.findByUsername(userName);
-        Long userId = user.getId();
-
+    public List<OrderResponse> getAllOrders(Long userId) {
+        log.info("Getting all orders for user with id: {}", userId);
         List<Order> orders = orderRepository.findAllByUser_Id(userId);
 
-        log.info("Found {} orders for user: {}", orders.size(), userName);
+        log.info("Found {} orders for user with id: {}", orders.size(), userId);
         return orders.stream().map(order -> createOrderResponse(order, null)).toList();
     }
 
+    public OrdersVersion getOrdersVersion(Long userId) {
+        return orderRepository.findVersionByUserId(userId);
+    }
+
     public OrderResponse createOrderResponse(Order order, List<OrderItem> orderItems) {
         OrderResponse orderResponse = new OrderResponse();
         orderResponse.setId(order.getId());
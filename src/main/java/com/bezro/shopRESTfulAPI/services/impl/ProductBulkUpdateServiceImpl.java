@@ -0,0 +1,166 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import com.bezro.shopRESTfulAPI.dtos.ProductBulkUpdateDto;
+import com.bezro.shopRESTfulAPI.dtos.ProductBulkUpdateResponse;
+import com.bezro.shopRESTfulAPI.dtos.ProductBulkUpdateResult;
+import com.bezro.shopRESTfulAPI.entities.ProductUpdateStatus;
+import com.bezro.shopRESTfulAPI.exceptions.InvalidMethodArgumentsException;
+import com.bezro.shopRESTfulAPI.repositories.ProductRepository;
+import com.bezro.shopRESTfulAPI.services.ProductBulkUpdateService;
+import com.bezro.shopRESTfulAPI.services.ProductSearchService;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+@Slf4j
+@Service
+public class ProductBulkUpdateServiceImpl implements ProductBulkUpdateService {
+    private static final int MAX_UPDATES = 10_000;
+    //A null price keeps the current one, and the stock is only changed when it stays non-negative,
+    //so one statement per product covers every combination of the two fields
+    private static final String UPDATE_PRODUCT_SQL = "UPDATE products SET price = COALESCE(?, price), quantity = quantity + ?, updated_at = UTC_TIMESTAMP(6)"
+            + " WHERE id = ? AND quantity + ? >= 0";
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ProductSearchService productSearchService;
+    private final ProductCacheInvalidator productCacheInvalidator;
+    private final int chunkSize;
+
+    public ProductBulkUpdateServiceImpl(ProductRepository productRepository,
+                                        JdbcTemplate jdbcTemplate,
+                                        PlatformTransactionManager transactionManager,
+                                        EntityManager entityManager,
+                                        ProductSearchService productSearchService,
+                                        ProductCacheInvalidator productCacheInvalidator,
+                                        @Value("${product.bulk-update.chunk-size:500}") int chunkSize) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.productSearchService = productSearchService;
+        this.productCacheInvalidator = productCacheInvalidator;
+        this.chunkSize = chunkSize;
+    }
+
+    //Every chunk is sent as one JDBC batch in its own transaction, no product is loaded to be updated.
+    //The caches are invalidated once for the whole request
+    public ProductBulkUpdateResponse updateProducts(List<ProductBulkUpdateDto> updates) {
+        if (updates.size() > MAX_UPDATES) {
+            throw new InvalidMethodArgumentsException(
+                    String.format("At most %d products can be updated at once", MAX_UPDATES));
+        }
+        log.info("Updating {} products in chunks of {}", updates.size(), chunkSize);
+        ProductBulkUpdateResult[] results = new ProductBulkUpdateResult[updates.size()];
+        List<Integer> chunk = new ArrayList<>(chunkSize);
+        Set<Long> updatedIds = new LinkedHashSet<>();
+        for (int i = 0; i < updates.size(); i++) {
+            ProductBulkUpdateDto update = updates.get(i);
+            String error = validate(update);
+            if (error != null) {
+                results[i] = new ProductBulkUpdateResult(update.getId(), ProductUpdateStatus.INVALID, error);
+                continue;
+            }
+            chunk.add(i);
+            if (chunk.size() == chunkSize) {
+                writeChunk(updates, chunk, results, updatedIds);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(updates, chunk, results, updatedIds);
+        }
+        if (!updatedIds.isEmpty()) {
+            productCacheInvalidator.evictAfterCommit(updatedIds);
+        }
+
+        ProductBulkUpdateResponse response = new ProductBulkUpdateResponse();
+        response.setResults(Arrays.asList(results));
+        response.setUpdatedCount(Arrays.stream(results).filter(result -> result.getStatus() == ProductUpdateStatus.UPDATED).count());
+        response.setFailedCount(results.length - response.getUpdatedCount());
+        log.info("Products updated: {}, failed: {}", response.getUpdatedCount(), response.getFailedCount());
+        return response;
+    }
+
+    private String validate(ProductBulkUpdateDto update) {
+        if (update.getId() == null) {
+            return "The id is required.";
+        }
+        if (update.getPrice() == null && update.getQuantityDelta() == null) {
+            return "The price or the quantity delta is required.";
+        }
+        if (update.getPrice() != null && update.getPrice() <= 0) {
+            return "Price must be greater than zero";
+        }
+        return null;
+    }
+
+    private void writeChunk(List<ProductBulkUpdateDto> updates, List<Integer> chunk, ProductBulkUpdateResult[] results,
+                            Set<Long> updatedIds) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> saveChunk(updates, chunk, results));
+
+            //Committed: the search index only keeps the price, so only repriced products are indexed again
+            List<Long> repricedIds = chunk.stream()
+                    .filter(i -> results[i].getStatus() == ProductUpdateStatus.UPDATED && updates.get(i).getPrice() != null)
+                    .map(i -> updates.get(i).getId())
+                    .distinct()
+                    .toList();
+            if (!repricedIds.isEmpty()) {
+                productSearchService.indexAll(productRepository.findAllById(repricedIds));
+            }
+            chunk.stream()
+                    .filter(i -> results[i].getStatus() == ProductUpdateStatus.UPDATED)
+                    .forEach(i -> updatedIds.add(updates.get(i).getId()));
+        } catch (DataAccessException | TransactionException e) {
+            log.error("Products chunk of {} updates could not be saved", chunk.size(), e);
+            chunk.forEach(i -> results[i] = new ProductBulkUpdateResult(updates.get(i).getId(), ProductUpdateStatus.FAILED,
+                    "Product could not be updated"));
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    private void saveChunk(List<ProductBulkUpdateDto> updates, List<Integer> chunk, ProductBulkUpdateResult[] results) {
+        List<Object[]> batchArgs = new ArrayList<>(chunk.size());
+        for (int i : chunk) {
+            ProductBulkUpdateDto update = updates.get(i);
+            double quantityDelta = update.getQuantityDelta() == null ? 0 : update.getQuantityDelta();
+            batchArgs.add(new Object[]{update.getPrice(), quantityDelta, update.getId(), quantityDelta});
+        }
+        int[] updateCounts = jdbcTemplate.batchUpdate(UPDATE_PRODUCT_SQL, batchArgs);
+
+        //A statement matching no row is either a missing product or a stock that would go negative
+        List<Long> rejectedIds = new ArrayList<>();
+        for (int j = 0; j < chunk.size(); j++) {
+            if (updateCounts[j] == 0) {
+                rejectedIds.add(updates.get(chunk.get(j)).getId());
+            }
+        }
+        Set<Long> existingIds = rejectedIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(productRepository.findExistingIds(rejectedIds));
+        for (int j = 0; j < chunk.size(); j++) {
+            Long id = updates.get(chunk.get(j)).getId();
+            if (updateCounts[j] != 0) {
+                results[chunk.get(j)] = new ProductBulkUpdateResult(id, ProductUpdateStatus.UPDATED, null);
+            } else if (existingIds.contains(id)) {
+                results[chunk.get(j)] = new ProductBulkUpdateResult(id, ProductUpdateStatus.INSUFFICIENT_STOCK,
+                        "Stock cannot become negative");
+            } else {
+                results[chunk.get(j)] = new ProductBulkUpdateResult(id, ProductUpdateStatus.NOT_FOUND,
+                        String.format("Product with id: %d does not exist", id));
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import com.bezro.shopRESTfulAPI.constants.CacheNames;
+import com.bezro.shopRESTfulAPI.entities.Product;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+
+// Single place every catalog or stock write goes through to drop the cached products and pages
+// and to move the catalog version the listing ETags and encoded pages are based on
+@Component
+@RequiredArgsConstructor
+public class ProductCacheInvalidator {
+    private final CacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ProductCatalogVersion productCatalogVersion;
+
+    //Evicting or changing the catalog version before the commit would let a concurrent read
+    //cache the old data again, under the new version
+    public void evictAfterCommit(Collection<Long> productIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(productIds);
+                }
+            });
+        } else {
+            evict(productIds);
+        }
+    }
+
+    private void evict(Collection<Long> productIds) {
+        //Writes sent through JDBC bypass the second-level cache, so the products are dropped from it here as well,
+        //before the caches below can be filled again from it
+        jakarta.persistence.Cache entityCache = entityManagerFactory.getCache();
+        productIds.forEach(id -> entityCache.evict(Product.class, id));
+        Cache productsCache = cacheManager.getCache(CacheNames.PRODUCTS);
+        if (productsCache != null) {
+            productIds.forEach(productsCache::evict);
+        }
+        Cache productFacetsCache = cacheManager.getCache(CacheNames.PRODUCT_FACETS);
+        if (productFacetsCache != null) {
+            productFacetsCache.clear();
+        }
+        //A page read from the DB before the commit can still be cached after the clear above,
+        //the encoded page and facet keys start with the version, so it lands under the old one
+        productCatalogVersion.increment();
+    }
+}
@@ -0,0 +1,22 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Changes on every committed catalog or stock write and is used as the ETag of the product listings.
+// The boot id keeps a restarted instance from handing out the ETags of the previous one
+@Component
+public class ProductCatalogVersion {
+    private final String bootId = Long.toHexString(new SecureRandom().nextLong());
+    private final AtomicLong version = new AtomicLong();
+
+    public String get() {
+        return bootId + "-" + version.get();
+    }
+
+    public void increment() {
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,55 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import com.bezro.shopRESTfulAPI.repositories.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Approximate number of products for pagination totals. It is counted once, kept up to date
+// by the product write paths and recounted periodically to correct any drift
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCountTracker {
+    private static final long NOT_COUNTED = -1;
+
+    private final ProductRepository productRepository;
+    private final AtomicLong count = new AtomicLong(NOT_COUNTED);
+
+    public long getEstimatedCount() {
+        long estimatedCount = count.get();
+        if (estimatedCount == NOT_COUNTED) {
+            return refresh();
+        }
+        return estimatedCount;
+    }
+
+    @Scheduled(initialDelayString = "${product.count.refresh-interval-ms:60000}",
+            fixedDelayString = "${product.count.refresh-interval-ms:60000}")
+    public long refresh() {
+        long exactCount = productRepository.count();
+        update(exactCount);
+        log.info("Product count refreshed: {}", exactCount);
+        return exactCount;
+    }
+
+    //Called with the total of an exact count query, so it is not counted twice
+    public void update(long exactCount) {
+        count.set(exactCount);
+    }
+
+    public void increment() {
+        add(1);
+    }
+
+    public void add(long addedCount) {
+        count.updateAndGet(current -> current == NOT_COUNTED ? current : current + addedCount);
+    }
+
+    public void decrement() {
+        count.updateAndGet(current -> current == NOT_COUNTED ? current : Math.max(0, current - 1));
+    }
+}
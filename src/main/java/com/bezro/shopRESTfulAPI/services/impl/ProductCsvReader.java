@@ -0,0 +1,72 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads RFC 4180 records one at a time, so a file is never held in memory as a whole.
+// A quoted field may contain separators, doubled quotes and line breaks
+class ProductCsvReader {
+    private final Reader reader;
+    private long lineNumber = 1;
+
+    //Line the last returned record starts on
+    @Getter
+    private long recordLineNumber;
+
+    ProductCsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    //Returns null at the end of the input
+    List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        recordLineNumber = lineNumber;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    //Unterminated quote, the rest of the input is the last field
+                    fields.add(field.toString());
+                    return fields;
+                }
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next != '"') {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                    field.append('"');
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == -1 || c == '\n') {
+                if (c == '\n') {
+                    lineNumber++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import com.bezro.shopRESTfulAPI.entities.Product;
+import com.bezro.shopRESTfulAPI.entities.ProductFileFormat;
+import com.bezro.shopRESTfulAPI.repositories.ProductRepository;
+import com.bezro.shopRESTfulAPI.services.ProductExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductExportServiceImpl implements ProductExportService {
+    private static final String CSV_HEADER = "id,name,description,price,quantity";
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    //One query over the whole catalog: every product is written and detached before the next row is read,
+    //so the heap does not grow with the catalog size. The stream only lives inside this transaction
+    @Transactional(readOnly = true)
+    public long exportProducts(ProductFileFormat format, OutputStream outputStream) throws IOException {
+        log.info("Exporting products as: {}", format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        ObjectWriter jsonWriter = objectMapper.writerFor(Product.class);
+        if (format == ProductFileFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        long exportedCount = 0;
+        try (Stream<Product> products = productRepository.streamAllBy()) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                if (format == ProductFileFormat.CSV) {
+                    writeCsvLine(writer, product);
+                } else {
+                    writer.write(jsonWriter.writeValueAsString(product));
+                }
+                writer.write('\n');
+                entityManager.detach(product);
+                exportedCount++;
+            }
+        }
+        writer.flush();
+        log.info("Exported {} products", exportedCount);
+        return exportedCount;
+    }
+
+    private void writeCsvLine(Writer writer, Product product) throws IOException {
+        writer.write(String.valueOf(product.getId()));
+        writer.write(',');
+        writer.write(csvField(product.getName()));
+        writer.write(',');
+        writer.write(csvField(product.getDescription()));
+        writer.write(',');
+        writer.write(String.valueOf(product.getPrice()));
+        writer.write(',');
+        writer.write(String.valueOf(product.getQuantity()));
+    }
+
+    //RFC 4180: fields with a separator, quote or line break are quoted, quotes are doubled
+    private String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,306 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import com.bezro.shopRESTfulAPI.dtos.CreateProductDto;
+import com.bezro.shopRESTfulAPI.dtos.ProductImportError;
+import com.bezro.shopRESTfulAPI.dtos.ProductImportResponse;
+import com.bezro.shopRESTfulAPI.entities.Product;
+import com.bezro.shopRESTfulAPI.entities.ProductFileFormat;
+import com.bezro.shopRESTfulAPI.exceptions.InvalidMethodArgumentsException;
+import com.bezro.shopRESTfulAPI.repositories.ProductRepository;
+import com.bezro.shopRESTfulAPI.services.ProductImportService;
+import com.bezro.shopRESTfulAPI.services.ProductSearchService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+    private static final int MAX_CHUNK_SIZE = 10_000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    //Sent as one multi-row INSERT per chunk, the driver rewrites the batch (rewriteBatchedStatements)
+    private static final String INSERT_PRODUCT_SQL = "INSERT INTO products (name, description, price, quantity, updated_at)"
+            + " VALUES (?, ?, ?, ?, UTC_TIMESTAMP(6))";
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ProductCountTracker productCountTracker;
+    private final ProductSearchService productSearchService;
+    private final ProductCacheInvalidator productCacheInvalidator;
+    private final int defaultChunkSize;
+
+    public ProductImportServiceImpl(ProductRepository productRepository,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    EntityManager entityManager,
+                                    ObjectMapper objectMapper,
+                                    Validator validator,
+                                    ProductCountTracker productCountTracker,
+                                    ProductSearchService productSearchService,
+                                    ProductCacheInvalidator productCacheInvalidator,
+                                    @Value("${product.import.chunk-size:1000}") int defaultChunkSize) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.productCountTracker = productCountTracker;
+        this.productSearchService = productSearchService;
+        this.productCacheInvalidator = productCacheInvalidator;
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    //The body is parsed line by line and written chunk by chunk, each chunk in its own transaction,
+    //so a large catalog needs neither the whole body in memory nor one long transaction.
+    //Invalid lines are reported and skipped, they do not stop the import
+    public ProductImportResponse importProducts(ProductFileFormat format, InputStream inputStream, Integer chunkSize,
+                                                boolean upsert) throws IOException {
+        int size = chunkSize == null ? defaultChunkSize : chunkSize;
+        if (size < 1 || size > MAX_CHUNK_SIZE) {
+            throw new InvalidMethodArgumentsException(
+                    String.format("Chunk size must be between 1 and %d", MAX_CHUNK_SIZE));
+        }
+        log.info("Importing products as: {}, chunk size: {}, upsert: {}", format, size, upsert);
+        ProductImportResponse response = new ProductImportResponse();
+        List<ImportLine> chunk = new ArrayList<>(size);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        if (format == ProductFileFormat.CSV) {
+            readCsv(reader, size, upsert, chunk, response);
+        } else {
+            readNdjson(reader, size, upsert, chunk, response);
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, upsert, response);
+        }
+        log.info("Products imported, created: {}, updated: {}, failed: {}",
+                response.getCreatedCount(), response.getUpdatedCount(), response.getFailedCount());
+        return response;
+    }
+
+    private void readNdjson(BufferedReader reader, int size, boolean upsert, List<ImportLine> chunk,
+                            ProductImportResponse response) throws IOException {
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                addLine(new ImportLine(lineNumber, objectMapper.readValue(line, CreateProductDto.class)),
+                        size, upsert, chunk, response);
+            } catch (JsonProcessingException e) {
+                addError(response, lineNumber, "Invalid JSON");
+            }
+        }
+    }
+
+    //The header names the columns, so their order is free and other columns (like the exported id) are ignored
+    private void readCsv(BufferedReader reader, int size, boolean upsert, List<ImportLine> chunk,
+                         ProductImportResponse response) throws IOException {
+        ProductCsvReader csvReader = new ProductCsvReader(reader);
+        List<String> header = csvReader.readRecord();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(), i);
+        }
+        if (!columns.keySet().containsAll(List.of("name", "price", "quantity"))) {
+            throw new InvalidMethodArgumentsException("CSV header should contain the columns: name, price, quantity");
+        }
+        List<String> record;
+        while ((record = csvReader.readRecord()) != null) {
+            long lineNumber = csvReader.getRecordLineNumber();
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            CreateProductDto productDto = new CreateProductDto();
+            productDto.setName(csvField(record, columns.get("name")));
+            productDto.setDescription(csvField(record, columns.get("description")));
+            try {
+                productDto.setPrice(csvNumber(record, columns.get("price"), "price"));
+                productDto.setQuantity(csvNumber(record, columns.get("quantity"), "quantity"));
+            } catch (IllegalArgumentException e) {
+                addError(response, lineNumber, e.getMessage());
+                continue;
+            }
+            addLine(new ImportLine(lineNumber, productDto), size, upsert, chunk, response);
+        }
+    }
+
+    private String csvField(List<String> record, Integer column) {
+        if (column == null || column >= record.size() || record.get(column).isEmpty()) {
+            return null;
+        }
+        return record.get(column);
+    }
+
+    private double csvNumber(List<String> record, Integer column, String name) {
+        String value = csvField(record, column);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("Invalid %s: %s", name, value));
+        }
+    }
+
+    private void addLine(ImportLine line, int size, boolean upsert, List<ImportLine> chunk, ProductImportResponse response) {
+        Set<ConstraintViolation<CreateProductDto>> violations = validator.validate(line.getProductDto());
+        if (!violations.isEmpty()) {
+            addError(response, line.getLineNumber(), violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return;
+        }
+        chunk.add(line);
+        if (chunk.size() == size) {
+            writeChunk(chunk, upsert, response);
+            chunk.clear();
+        }
+    }
+
+    private void addError(ProductImportResponse response, long lineNumber, String message) {
+        response.setFailedCount(response.getFailedCount() + 1);
+        if (response.getErrors().size() < MAX_REPORTED_ERRORS) {
+            response.getErrors().add(new ProductImportError(lineNumber, message));
+        }
+    }
+
+    private void writeChunk(List<ImportLine> chunk, boolean upsert, ProductImportResponse response) {
+        try {
+            ChunkResult result = transactionTemplate.execute(status -> saveChunk(chunk, upsert));
+            response.setCreatedCount(response.getCreatedCount() + result.getCreatedProducts().size());
+            response.setUpdatedCount(response.getUpdatedCount() + result.getUpdatedProducts().size());
+
+            //Committed: the search index, count and caches follow once per chunk instead of once per product
+            List<Product> indexedProducts = new ArrayList<>(result.getUpdatedProducts());
+            indexedProducts.addAll(result.getCreatedProducts());
+            productSearchService.indexAll(indexedProducts);
+            productCountTracker.add(result.getCreatedProducts().size());
+            productCacheInvalidator.evictAfterCommit(
+                    result.getUpdatedProducts().stream().map(Product::getId).toList());
+        } catch (DataAccessException | TransactionException e) {
+            log.error("Products chunk of {} lines could not be saved", chunk.size(), e);
+            chunk.forEach(line -> addError(response, line.getLineNumber(), "Product could not be saved"));
+        } finally {
+            //The request persistence context would otherwise keep every loaded product until the import ends
+            entityManager.clear();
+        }
+    }
+
+    private ChunkResult saveChunk(List<ImportLine> chunk, boolean upsert) {
+        List<CreateProductDto> productDtos = chunk.stream().map(ImportLine::getProductDto).toList();
+        if (!upsert) {
+            return new ChunkResult(insertProducts(productDtos), List.of());
+        }
+
+        //With upsert, a name repeated in the chunk is one product and the later line wins
+        Map<String, CreateProductDto> productDtosByName = new LinkedHashMap<>();
+        productDtos.forEach(productDto -> productDtosByName.put(productDto.getName(), productDto));
+        //The oldest product with the same name is updated
+        Map<String, Product> existingProducts = new HashMap<>();
+        productRepository.findAllByNameIn(productDtosByName.keySet()).forEach(product -> existingProducts.merge(
+                product.getName(), product, (first, second) -> first.getId() < second.getId() ? first : second));
+
+        List<CreateProductDto> inserts = new ArrayList<>();
+        List<Product> updatedProducts = new ArrayList<>();
+        for (CreateProductDto productDto : productDtosByName.values()) {
+            Product product = existingProducts.get(productDto.getName());
+            if (product != null) {
+                product.setDescription(productDto.getDescription());
+                product.setPrice(productDto.getPrice());
+                product.setQuantity(productDto.getQuantity());
+                updatedProducts.add(product);
+            } else {
+                inserts.add(productDto);
+            }
+        }
+        //The updates go out as one JDBC batch before the inserts
+        entityManager.flush();
+        return new ChunkResult(insertProducts(inserts), updatedProducts);
+    }
+
+    //The created products are built from the lines and the generated ids, without reading them back
+    private List<Product> insertProducts(List<CreateProductDto> productDtos) {
+        if (productDtos.isEmpty()) {
+            return List.of();
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_PRODUCT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        CreateProductDto productDto = productDtos.get(i);
+                        statement.setString(1, productDto.getName());
+                        statement.setString(2, productDto.getDescription());
+                        statement.setDouble(3, productDto.getPrice());
+                        statement.setDouble(4, productDto.getQuantity());
+                    }
+
+                    public int getBatchSize() {
+                        return productDtos.size();
+                    }
+                },
+                keyHolder);
+        List<Map<String, Object>> generatedKeys = keyHolder.getKeyList();
+        List<Product> createdProducts = new ArrayList<>(productDtos.size());
+        for (int i = 0; i < productDtos.size(); i++) {
+            CreateProductDto productDto = productDtos.get(i);
+            Product product = new Product();
+            product.setId(((Number) generatedKeys.get(i).values().iterator().next()).longValue());
+            product.setName(productDto.getName());
+            product.setDescription(productDto.getDescription());
+            product.setPrice(productDto.getPrice());
+            product.setQuantity(productDto.getQuantity());
+            createdProducts.add(product);
+        }
+        return createdProducts;
+    }
+
+    @lombok.Value
+    private static class ImportLine {
+        long lineNumber;
+        CreateProductDto productDto;
+    }
+
+    @lombok.Value
+    private static class ChunkResult {
+        List<Product> createdProducts;
+        List<Product> updatedProducts;
+    }
+}
@@ -0,0 +1,173 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import java.util.*;
+
+// Product names sorted by their lower case form, so a prefix lookup is a binary search followed by a short scan.
+// Parallel arrays cost two references and a long per product on top of the names. Instances are immutable,
+// writes return a changed copy which readers pick up without locking
+public final class ProductNameSuggestions {
+    public static final ProductNameSuggestions EMPTY = new ProductNameSuggestions(new String[0], new String[0], new long[0]);
+
+    private final String[] keys;
+    private final String[] names;
+    private final long[] ids;
+
+    private ProductNameSuggestions(String[] keys, String[] names, long[] ids) {
+        this.keys = keys;
+        this.names = names;
+        this.ids = ids;
+    }
+
+    public static ProductNameSuggestions of(Map<Long, String> namesById) {
+        Map<Long, String> keysById = new HashMap<>();
+        namesById.forEach((id, name) -> keysById.put(id, normalize(name)));
+        Long[] sortedIds = namesById.keySet().toArray(new Long[0]);
+        Arrays.sort(sortedIds, Comparator.comparing((Long id) -> keysById.get(id)).thenComparing(Comparator.naturalOrder()));
+
+        String[] keys = new String[sortedIds.length];
+        String[] names = new String[sortedIds.length];
+        long[] ids = new long[sortedIds.length];
+        for (int i = 0; i < sortedIds.length; i++) {
+            keys[i] = keysById.get(sortedIds[i]);
+            names[i] = namesById.get(sortedIds[i]);
+            ids[i] = sortedIds[i];
+        }
+        return new ProductNameSuggestions(keys, names, ids);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    // Distinct names starting with the prefix, in alphabetical order
+    public List<String> suggest(String prefix, int limit) {
+        String normalizedPrefix = normalize(prefix);
+        List<String> suggestions = new ArrayList<>();
+        String previousKey = null;
+        for (int i = position(normalizedPrefix, Long.MIN_VALUE);
+             i < keys.length && suggestions.size() < limit && keys[i].startsWith(normalizedPrefix); i++) {
+            if (!keys[i].equals(previousKey)) {
+                suggestions.add(names[i]);
+                previousKey = keys[i];
+            }
+        }
+        return suggestions;
+    }
+
+    public ProductNameSuggestions with(long id, String name) {
+        String key = normalize(name);
+        int index = position(key, id);
+        if (index < ids.length && ids[index] == id && keys[index].equals(key)) {
+            return this;
+        }
+        String[] newKeys = insert(keys, index, key, new String[keys.length + 1]);
+        String[] newNames = insert(names, index, name, new String[names.length + 1]);
+        long[] newIds = new long[ids.length + 1];
+        System.arraycopy(ids, 0, newIds, 0, index);
+        newIds[index] = id;
+        System.arraycopy(ids, index, newIds, index + 1, ids.length - index);
+        return new ProductNameSuggestions(newKeys, newNames, newIds);
+    }
+
+    public ProductNameSuggestions without(long id, String name) {
+        String key = normalize(name);
+        int index = position(key, id);
+        if (index == ids.length || ids[index] != id || !keys[index].equals(key)) {
+            return this;
+        }
+        String[] newKeys = remove(keys, index, new String[keys.length - 1]);
+        String[] newNames = remove(names, index, new String[names.length - 1]);
+        long[] newIds = new long[ids.length - 1];
+        System.arraycopy(ids, 0, newIds, 0, index);
+        System.arraycopy(ids, index + 1, newIds, index, ids.length - index - 1);
+        return new ProductNameSuggestions(newKeys, newNames, newIds);
+    }
+
+    // Applies a batch of writes with one merge of the sorted additions into the current entries,
+    // so a chunk of k writes costs one copy instead of k
+    public ProductNameSuggestions withChanges(Map<Long, String> removedNames, Map<Long, String> addedNames) {
+        if (removedNames.isEmpty() && addedNames.isEmpty()) {
+            return this;
+        }
+        Map<Long, String> removedKeys = new HashMap<>();
+        removedNames.forEach((id, name) -> removedKeys.put(id, normalize(name)));
+        ProductNameSuggestions added = of(addedNames);
+
+        int capacity = ids.length + added.ids.length;
+        String[] newKeys = new String[capacity];
+        String[] newNames = new String[capacity];
+        long[] newIds = new long[capacity];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < ids.length || j < added.ids.length) {
+            boolean takeAdded = i == ids.length || (j < added.ids.length && compare(added.keys[j], added.ids[j], i) < 0);
+            String key;
+            String name;
+            long id;
+            if (takeAdded) {
+                key = added.keys[j];
+                name = added.names[j];
+                id = added.ids[j++];
+            } else {
+                key = keys[i];
+                name = names[i];
+                id = ids[i++];
+                if (key.equals(removedKeys.get(id))) {
+                    continue;
+                }
+            }
+            if (count > 0 && newIds[count - 1] == id && newKeys[count - 1].equals(key)) {
+                continue;
+            }
+            newKeys[count] = key;
+            newNames[count] = name;
+            newIds[count++] = id;
+        }
+        return new ProductNameSuggestions(Arrays.copyOf(newKeys, count), Arrays.copyOf(newNames, count),
+                Arrays.copyOf(newIds, count));
+    }
+
+    // Index of the first entry not before (key, id)
+    private int position(String key, long id) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = keys[middle].compareTo(key);
+            if (comparison == 0) {
+                comparison = Long.compare(ids[middle], id);
+            }
+            if (comparison < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Orders (key, id) against the entry at the index
+    private int compare(String key, long id, int index) {
+        int comparison = key.compareTo(keys[index]);
+        return comparison != 0 ? comparison : Long.compare(id, ids[index]);
+    }
+
+    private static String[] insert(String[] source, int index, String value, String[] target) {
+        System.arraycopy(source, 0, target, 0, index);
+        target[index] = value;
+        System.arraycopy(source, index, target, index + 1, source.length - index);
+        return target;
+    }
+
+    private static String[] remove(String[] source, int index, String[] target) {
+        System.arraycopy(source, 0, target, 0, index);
+        System.arraycopy(source, index + 1, target, index, source.length - index - 1);
+        return target;
+    }
+
+    //Lower case names are kept as they are, so most keys share the name instance
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
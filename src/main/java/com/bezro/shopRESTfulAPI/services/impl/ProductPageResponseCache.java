@@ -0,0 +1,101 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+// Already encoded JSON of the listing pages, so a hot page is copied to the response instead of
+// being serialized again. The catalog version is part of every key: after a product or stock write
+// the older entries can no longer be read and they are dropped on the first read of the new version
+@Slf4j
+@Component
+public class ProductPageResponseCache {
+    public static final String CACHE_NAME = "product.page-responses";
+
+    private final boolean enabled;
+    private final boolean gzipEnabled;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, EncodedResponse> cache;
+    private volatile String cachedVersion;
+
+    public ProductPageResponseCache(@Value("${product.page-cache.enabled:true}") boolean enabled,
+                                    @Value("${product.page-cache.maximum-size:1000}") long maximumSize,
+                                    @Value("${product.page-cache.gzip:true}") boolean gzipEnabled,
+                                    @Value("${product.page-cache.expire-after-write-ms:60000}") long expireAfterWriteMs,
+                                    ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.gzipEnabled = gzipEnabled;
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                //Bounds the age of the estimated totals, they are not part of the catalog version
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        log.info("Product page response cache enabled: {}, maximum size: {}, gzip: {}, expire after write: {} ms",
+                enabled, maximumSize, gzipEnabled, expireAfterWriteMs);
+    }
+
+    public boolean isGzipEnabled() {
+        return enabled && gzipEnabled;
+    }
+
+    // Returns the encoded page for the key, or encodes and caches the loaded page.
+    // A failing loader is not cached, its exception is rethrown
+    public EncodedResponse get(String catalogVersion, String key, Supplier<?> loader) {
+        if (!enabled) {
+            return encode(loader.get(), false);
+        }
+        if (!catalogVersion.equals(cachedVersion)) {
+            cache.invalidateAll();
+            cachedVersion = catalogVersion;
+        }
+        return cache.get(catalogVersion + "|" + key, k -> encode(loader.get(), gzipEnabled));
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private EncodedResponse encode(Object page, boolean gzip) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(page);
+            return new EncodedResponse(body, gzip ? gzip(body) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Product page cannot be encoded", e);
+        }
+    }
+
+    private byte[] gzip(byte[] body) {
+        ByteArrayOutputStream gzippedBody = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(gzippedBody)) {
+            gzipStream.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return gzippedBody.toByteArray();
+    }
+
+    @lombok.Value
+    public static class EncodedResponse {
+        byte[] body;
+
+        //Null when gzip is disabled
+        byte[] gzippedBody;
+    }
+}
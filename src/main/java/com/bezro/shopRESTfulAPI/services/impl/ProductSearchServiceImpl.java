@@ -0,0 +1,342 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import com.bezro.shopRESTfulAPI.dtos.ProductFilter;
+import com.bezro.shopRESTfulAPI.dtos.ProductSearchResult;
+import com.bezro.shopRESTfulAPI.entities.Product;
+import com.bezro.shopRESTfulAPI.exceptions.InvalidMethodArgumentsException;
+import com.bezro.shopRESTfulAPI.repositories.ProductRepository;
+import com.bezro.shopRESTfulAPI.services.ProductSearchService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// Inverted index over product names and descriptions: every word points to the products containing it
+// and its weight in each of them. A search returns the products containing all words of the query,
+// ranked by the summed word weights, where rare words count more than common ones
+@Slf4j
+@Service
+public class ProductSearchServiceImpl implements ProductSearchService {
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MAX_LIMIT = 100;
+    private static final int BUILD_BATCH_SIZE = 1000;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Comparator<ProductSearchResult> RANKING =
+            Comparator.comparingDouble(ProductSearchResult::getScore).reversed()
+                    .thenComparing(ProductSearchResult::getName)
+                    .thenComparing(ProductSearchResult::getId);
+
+    private final ProductRepository productRepository;
+    private final boolean indexOnStartup;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object buildMonitor = new Object();
+    private Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private Map<Long, IndexedProduct> products = new HashMap<>();
+    //Writes made while the index is being built, replayed before it is published. Guarded by the lock
+    private List<PendingWrite> pendingWrites;
+    private volatile ProductNameSuggestions nameSuggestions = ProductNameSuggestions.EMPTY;
+    private volatile boolean built;
+
+    public ProductSearchServiceImpl(ProductRepository productRepository,
+                                    @Value("${product.search.index-on-startup:true}") boolean indexOnStartup) {
+        this.productRepository = productRepository;
+        this.indexOnStartup = indexOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (indexOnStartup) {
+            ensureBuilt();
+        }
+    }
+
+    public List<ProductSearchResult> search(String query, int limit) {
+        log.info("Searching products: {}, limit: {}", query, limit);
+        if (limit < 1) {
+            throw new InvalidMethodArgumentsException("Limit must be greater than 0");
+        }
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) {
+            throw new InvalidMethodArgumentsException("Search query should contain at least one word");
+        }
+        ensureBuilt();
+
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> termPostings = new ArrayList<>();
+            for (String term : terms) {
+                Map<Long, Integer> productWeights = postings.get(term);
+                if (productWeights == null) {
+                    return List.of();
+                }
+                termPostings.add(productWeights);
+            }
+            //Only products in the shortest posting list can contain every word
+            termPostings.sort(Comparator.comparingInt(Map::size));
+            double[] inverseFrequencies = termPostings.stream()
+                    .mapToDouble(productWeights -> Math.log(1 + (double) products.size() / productWeights.size()))
+                    .toArray();
+
+            int maxResults = Math.min(limit, MAX_LIMIT);
+            PriorityQueue<ProductSearchResult> topResults = new PriorityQueue<>(RANKING.reversed());
+            for (Long productId : termPostings.get(0).keySet()) {
+                double score = score(productId, termPostings, inverseFrequencies);
+                if (score > 0) {
+                    IndexedProduct product = products.get(productId);
+                    topResults.offer(new ProductSearchResult(productId, product.getName(), product.getPrice(), score));
+                    if (topResults.size() > maxResults) {
+                        topResults.poll();
+                    }
+                }
+            }
+            List<ProductSearchResult> results = new ArrayList<>(topResults);
+            results.sort(RANKING);
+            log.info("Found {} products", results.size());
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Served from the name snapshot without taking the index lock
+    public List<String> suggest(String prefix, int limit) {
+        log.info("Suggesting product names for prefix: {}, limit: {}", prefix, limit);
+        if (limit < 1) {
+            throw new InvalidMethodArgumentsException("Limit must be greater than 0");
+        }
+        if (prefix == null || prefix.isBlank()) {
+            throw new InvalidMethodArgumentsException("Prefix should not be empty");
+        }
+        ensureBuilt();
+        return nameSuggestions.suggest(prefix.stripLeading(), Math.min(limit, MAX_LIMIT));
+    }
+
+    //Writes before the first build are skipped, the build reads them from the DB.
+    //Writes during the build are queued, the build may have read the product before the change
+    public void index(Product product) {
+        indexAll(List.of(product));
+    }
+
+    public void indexAll(Collection<Product> productsToIndex) {
+        afterCommit(() -> applyIndexAll(productsToIndex));
+    }
+
+    public void remove(Long productId) {
+        afterCommit(() -> applyRemove(productId));
+    }
+
+    //A rolled back write must not be searchable, and a concurrent build must not read the product
+    //from the DB before the commit and then miss the write
+    private void afterCommit(Runnable write) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write.run();
+                }
+            });
+        } else {
+            write.run();
+        }
+    }
+
+    //A batch changes the name snapshot once, not once per product
+    private void applyIndexAll(Collection<Product> productsToIndex) {
+        lock.writeLock().lock();
+        try {
+            if (pendingWrites != null) {
+                productsToIndex.forEach(product -> pendingWrites.add(new PendingWrite(product.getId(), copy(product))));
+                return;
+            }
+            if (!built) {
+                return;
+            }
+            Map<Long, String> removedNames = new HashMap<>();
+            Map<Long, String> addedNames = new HashMap<>();
+            for (Product product : productsToIndex) {
+                IndexedProduct previousProduct = removeFromIndex(postings, products, product.getId());
+                addToIndex(postings, products, product);
+                //Only the name from before the batch is in the snapshot
+                if (previousProduct != null && !addedNames.containsKey(product.getId())) {
+                    removedNames.put(product.getId(), previousProduct.getName());
+                }
+                addedNames.put(product.getId(), product.getName());
+            }
+            removedNames.entrySet().removeIf(removed -> addedNames.remove(removed.getKey(), removed.getValue()));
+            nameSuggestions = nameSuggestions.withChanges(removedNames, addedNames);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyRemove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            if (pendingWrites != null) {
+                pendingWrites.add(new PendingWrite(productId, null));
+                return;
+            }
+            if (!built) {
+                return;
+            }
+            IndexedProduct removedProduct = removeFromIndex(postings, products, productId);
+            if (removedProduct != null) {
+                nameSuggestions = nameSuggestions.without(productId, removedProduct.getName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Returns 0 when the product does not contain every word
+    private double score(Long productId, List<Map<Long, Integer>> termPostings, double[] inverseFrequencies) {
+        double score = 0;
+        for (int i = 0; i < termPostings.size(); i++) {
+            Integer weight = termPostings.get(i).get(productId);
+            if (weight == null) {
+                return 0;
+            }
+            score += weight * inverseFrequencies[i];
+        }
+        return score;
+    }
+
+    //The index is built into new maps without holding the lock, so writes are not blocked by the DB scan.
+    //Under the lock the maps are swapped in and the queued writes replayed, then the index is published
+    private void ensureBuilt() {
+        if (built) {
+            return;
+        }
+        synchronized (buildMonitor) {
+            if (built) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                pendingWrites = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                Map<String, Map<Long, Integer>> builtPostings = new HashMap<>();
+                Map<Long, IndexedProduct> builtProducts = new HashMap<>();
+                build(builtPostings, builtProducts);
+
+                lock.writeLock().lock();
+                try {
+                    for (PendingWrite write : pendingWrites) {
+                        removeFromIndex(builtPostings, builtProducts, write.getProductId());
+                        if (write.getProduct() != null) {
+                            addToIndex(builtPostings, builtProducts, write.getProduct());
+                        }
+                    }
+                    log.info("Product search index built: {} products, {} words, {} writes replayed",
+                            builtProducts.size(), builtPostings.size(), pendingWrites.size());
+                    postings = builtPostings;
+                    products = builtProducts;
+                    Map<Long, String> namesById = new HashMap<>();
+                    products.forEach((id, product) -> namesById.put(id, product.getName()));
+                    nameSuggestions = ProductNameSuggestions.of(namesById);
+                    pendingWrites = null;
+                    built = true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } finally {
+                if (!built) {
+                    //Failed build: writes are skipped again until the next attempt
+                    lock.writeLock().lock();
+                    try {
+                        pendingWrites = null;
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                }
+            }
+        }
+    }
+
+    private void build(Map<String, Map<Long, Integer>> postings, Map<Long, IndexedProduct> products) {
+        log.info("Building product search index");
+        long lastId = 0;
+        Slice<Product> productSlice;
+        do {
+            productSlice = productRepository.findAllAfterId(lastId, ProductFilter.none(), PageRequest.of(0, BUILD_BATCH_SIZE));
+            for (Product product : productSlice) {
+                addToIndex(postings, products, product);
+                lastId = product.getId();
+            }
+        } while (productSlice.hasNext());
+    }
+
+    //Only the indexed fields are kept, the entity may change before a queued write is replayed
+    private Product copy(Product product) {
+        Product copy = new Product();
+        copy.setId(product.getId());
+        copy.setName(product.getName());
+        copy.setDescription(product.getDescription());
+        copy.setPrice(product.getPrice());
+        return copy;
+    }
+
+    private void addToIndex(Map<String, Map<Long, Integer>> postings, Map<Long, IndexedProduct> products, Product product) {
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(product.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+        tokenize(product.getDescription()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, k -> new HashMap<>()).put(product.getId(), weight));
+        products.put(product.getId(), new IndexedProduct(product.getName(), product.getPrice(), Set.copyOf(weights.keySet())));
+    }
+
+    private IndexedProduct removeFromIndex(Map<String, Map<Long, Integer>> postings, Map<Long, IndexedProduct> products,
+                                           Long productId) {
+        IndexedProduct product = products.remove(productId);
+        if (product == null) {
+            return null;
+        }
+        for (String term : product.getTerms()) {
+            Map<Long, Integer> productWeights = postings.get(term);
+            productWeights.remove(productId);
+            if (productWeights.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        return product;
+    }
+
+    private List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    @lombok.Value
+    private static class IndexedProduct {
+        String name;
+        double price;
+        Set<String> terms;
+    }
+
+    @lombok.Value
+    private static class PendingWrite {
+        Long productId;
+        Product product;
+    }
+}
@@ -1,28 +1,63 @@
 package com.bezro.shopRESTfulAPI.services.impl;
 
+import com.bezro.shopRESTfulAPI.constants.CacheNames;
 import com.bezro.shopRESTfulAPI.dtos.CreateProductDto;
+import com.bezro.shopRESTfulAPI.dtos.PriceBucket;
+import com.bezro.shopRESTfulAPI.dtos.PriceBucketCount;
+import com.bezro.shopRESTfulAPI.dtos.ProductCursor;
+import com.bezro.shopRESTfulAPI.dtos.ProductFacetsResponse;
+import com.bezro.shopRESTfulAPI.dtos.ProductFilter;
+import com.bezro.shopRESTfulAPI.dtos.ProductPageResponse;
+import com.bezro.shopRESTfulAPI.dtos.ProductSliceResponse;
+import com.bezro.shopRESTfulAPI.dtos.ProductStock;
+import com.bezro.shopRESTfulAPI.dtos.ProductSummary;
 import com.bezro.shopRESTfulAPI.entities.Product;
-import com.bezro.shopRESTfulAPI.exceptions.InsufficientProductStockException;
+import com.bezro.shopRESTfulAPI.entities.ProductSortField;
 import com.bezro.shopRESTfulAPI.exceptions.InvalidMethodArgumentsException;
 import com.bezro.shopRESTfulAPI.exceptions.NoContentException;
+import com.bezro.shopRESTfulAPI.exceptions.NotEnoughProductStockException;
 import com.bezro.shopRESTfulAPI.repositories.ProductRepository;
+import com.bezro.shopRESTfulAPI.services.ProductSearchService;
 import com.bezro.shopRESTfulAPI.services.ProductService;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
+    //Bounds the number of price groups the facets query builds and the response carries
+    private static final double MIN_BUCKET_SIZE = 0.01;
+    private static final int MAX_PRICE_BUCKETS = 1000;
+    //Sent through JDBC, a Hibernate bulk update would drop every product from the second-level cache,
+    //the invalidator evicts only the changed ones after the commit
+    private static final String DECREASE_STOCK_SQL = "UPDATE products SET quantity = quantity - ?, updated_at = UTC_TIMESTAMP(6)"
+            + " WHERE id = ? AND quantity >= ?";
+
     private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final ProductCountTracker productCountTracker;
+    private final ProductSearchService productSearchService;
+    private final ProductCatalogVersion productCatalogVersion;
+    private final ProductCacheInvalidator productCacheInvalidator;
+    private final CacheManager cacheManager;
 
     public Product addProduct(CreateProductDto productDto) {
         log.info("Adding new product: {}", productDto.getName());
@@ -32,12 +67,30 @@ public class ProductServiceImpl implements ProductService {
         product.setPrice(productDto.getPrice());
         product.setQuantity(productDto.getQuantity());
         Product savedProduct = productRepository.save(product);
+        productCountTracker.increment();
+        productSearchService.index(savedProduct);
+        productCacheInvalidator.evictAfterCommit(List.of());
         log.info("Product added successfully: {}", savedProduct);
         return savedProduct;
     }
 
+    //The cache holds an immutable snapshot and every caller gets its own copy,
+    //so a caller changing the returned product cannot change it for the others
     public Product findById(Long id) {
         log.info("Finding product by id: {}", id);
+        Cache productsCache = cacheManager.getCache(CacheNames.PRODUCTS);
+        ProductSnapshot snapshot = productsCache == null ? null : productsCache.get(id, ProductSnapshot.class);
+        if (snapshot == null) {
+            snapshot = ProductSnapshot.of(loadProduct(id));
+            if (productsCache != null) {
+                productsCache.put(id, snapshot);
+            }
+        }
+        return snapshot.toProduct();
+    }
+
+    //Internal calls (update, delete) bypass the cache and always work on a fresh entity
+    private Product loadProduct(Long id) {
         return productRepository.findById(id)
                 .orElseThrow(() -> new InvalidMethodArgumentsException(
                         String.format("Product with id: %d does not exist", id)));
@@ -45,7 +98,7 @@ public class ProductServiceImpl implements ProductService {
 
     public Product updateProduct(Long id, CreateProductDto productDto) {
         log.info("Updating product with id: {}", id);
-        Product product = findById(id);
+        Product product = loadProduct(id);
         //TODO: use ModelMapper to map data from DTO to the entity
         //    modelMapper.map(productDto, product) ?
         product.setName(productDto.getName());
@@ -53,52 +106,255 @@ public class ProductServiceImpl implements ProductService {
         product.setPrice(productDto.getPrice());
         product.setQuantity(productDto.getQuantity());
         Product updatedProduct = productRepository.save(product);
+        productSearchService.index(updatedProduct);
+        productCacheInvalidator.evictAfterCommit(List.of(id));
         log.info("Product updated successfully: {}", updatedProduct);
         return updatedProduct;
     }
 
     public void deleteProduct(Long id) {
         log.info("Deleting product with id: {}", id);
-        Product product = findById(id);
+        Product product = loadProduct(id);
         productRepository.delete(product);
+        productCountTracker.decrement();
+        productSearchService.remove(id);
+        productCacheInvalidator.evictAfterCommit(List.of(id));
         log.info("Product deleted successfully: {}", product);
     }
 
-    public Map<String, Object> getProductsPagination(int pageNumber, int pageSize, String sort) {
-        log.info("Fetching products for page number: {}, page size: {}, sort: {}", pageNumber, pageSize, sort);
+    //Not cached here, the controller caches the encoded page.
+    //Read-only: Hibernate skips flushing and the JDBC connection is marked read-only
+    @Transactional(readOnly = true)
+    public ProductPageResponse getProductsPagination(int pageNumber, int pageSize, String sort, boolean includeTotal,
+                                                     ProductFilter filter) {
+        log.info("Fetching products for page number: {}, page size: {}, sort: {}, include total: {}, filter: {}",
+                pageNumber, pageSize, sort, includeTotal, filter);
+        validateFilter(filter);
         Pageable pageable = null;
         if (sort != null) {
-            pageable = PageRequest.of(pageNumber, pageSize, Sort.Direction.ASC, sort);
+            pageable = PageRequest.of(pageNumber, pageSize, parseSort(sort));
         } else {
             pageable = PageRequest.of(pageNumber, pageSize);
         }
-        Page<Product> productPage = productRepository.findAll(pageable);
+        //Only an explicitly requested total pays for the COUNT query, otherwise the estimate is used.
+        //The estimate covers the whole catalog, so filtered listings are always counted
+        boolean exactTotal = includeTotal || filter.hasConditions();
+        Slice<ProductSummary> productSlice;
+        long totalItems;
+        if (exactTotal) {
+            Page<ProductSummary> productPage = productRepository.findAllProjectedBy(filter, pageable);
+            if (!filter.hasConditions()) {
+                productCountTracker.update(productPage.getTotalElements());
+            }
+            productSlice = productPage;
+            totalItems = productPage.getTotalElements();
+        } else {
+            productSlice = productRepository.findSliceProjectedBy(filter, pageable);
+            totalItems = productCountTracker.getEstimatedCount();
+        }
 
-        if (!productPage.hasContent()) {
+        if (!productSlice.hasContent()) {
             log.error("No products found for page number: {}, page size: {}, sort: {}", pageNumber, pageSize, sort);
             throw new NoContentException("No Content");
         }
 
-        Map<String, Object> response = new HashMap<>();
-
-        response.put("products", productPage.getContent());
-        response.put("currentPage", productPage.getNumber());
-        response.put("totalItems", productPage.getTotalElements());
-        response.put("totalPages", productPage.getTotalPages());
+        ProductPageResponse response = new ProductPageResponse(productSlice.getContent(), productSlice.getNumber(),
+                totalItems, (int) Math.ceil((double) totalItems / pageSize), exactTotal);
 
         log.info("Fetched products successfully");
         return response;
     }
 
-    public void decreaseProductStock(Long productId, double decrementAmount) {
-        log.info("Decreasing stock for product with id: {}, decrement amount: {}", productId, decrementAmount);
-        Product product = findById(productId);
-        if (product.getQuantity() < decrementAmount) {
-            log.error("Not enough stock for product with id: {}, current stock: {}, decrement amount: {}", productId, product.getQuantity(), decrementAmount);
-            throw new InsufficientProductStockException("Not enough product with id:" + productId);
+    @Transactional(readOnly = true)
+    public ProductSliceResponse scrollProducts(String after, int size, String sort, ProductFilter filter) {
+        log.info("Scrolling products after: {}, size: {}, sort: {}, filter: {}", after, size, sort, filter);
+        if (size < 1) {
+            throw new InvalidMethodArgumentsException("Size must be greater than 0");
+        }
+        validateFilter(filter);
+        ProductSortField sortField = ProductSortField.fromString(sort);
+        Slice<Product> productSlice;
+        if (after == null) {
+            Sort pageSort = sortField == ProductSortField.ID
+                    ? Sort.by(ProductSortField.ID.getProperty())
+                    : Sort.by(sortField.getProperty(), ProductSortField.ID.getProperty());
+            productSlice = productRepository.findAllBy(filter, PageRequest.of(0, size, pageSort));
+        } else {
+            ProductCursor cursor = ProductCursor.decode(after);
+            if (cursor.getSortField() != sortField) {
+                throw new InvalidMethodArgumentsException(
+                        String.format("Cursor was created for sort: %s", cursor.getSortField().getProperty()));
+            }
+            //Sorting is part of the seek query, the page request only limits the slice
+            Pageable pageable = PageRequest.of(0, size);
+            productSlice = switch (sortField) {
+                case ID -> productRepository.findAllAfterId(cursor.getId(), filter, pageable);
+                case NAME -> productRepository.findAllAfterName(cursor.getValue(), cursor.getId(), filter, pageable);
+                case PRICE -> productRepository.findAllAfterPrice(Double.parseDouble(cursor.getValue()), cursor.getId(),
+                        filter, pageable);
+            };
+        }
+
+        List<Product> products = productSlice.getContent();
+        String nextCursor = productSlice.hasNext()
+                ? ProductCursor.after(products.get(products.size() - 1), sortField).encode()
+                : null;
+        log.info("Scrolled {} products, has next: {}", products.size(), productSlice.hasNext());
+        return new ProductSliceResponse(products, productSlice.hasNext(), nextCursor);
+    }
+
+    public String getCatalogVersion() {
+        return productCatalogVersion.get();
+    }
+
+    @Cacheable(cacheNames = CacheNames.PRODUCT_FACETS, key = "@productCatalogVersion.get() + '-' + #bucketSize + '-' + #filter")
+    @Transactional(readOnly = true)
+    public ProductFacetsResponse getProductFacets(double bucketSize, ProductFilter filter) {
+        log.info("Counting product facets for bucket size: {}, filter: {}", bucketSize, filter);
+        if (!(bucketSize > 0)) {
+            throw new InvalidMethodArgumentsException("Bucket size must be greater than 0");
+        }
+        if (bucketSize < MIN_BUCKET_SIZE) {
+            throw new InvalidMethodArgumentsException(String.format("Bucket size must be at least %s", MIN_BUCKET_SIZE));
+        }
+        validateFilter(filter);
+        //With a maximum price the bucket count is known before the query, otherwise it is checked on the result
+        if (filter.getMaxPrice() != null) {
+            double minPrice = filter.getMinPrice() == null ? 0 : filter.getMinPrice();
+            if (Math.floor(filter.getMaxPrice() / bucketSize) - Math.floor(minPrice / bucketSize) + 1 > MAX_PRICE_BUCKETS) {
+                throw tooManyPriceBuckets();
+            }
+        }
+        List<PriceBucket> priceBuckets = new ArrayList<>();
+        long productsCount = 0;
+        long inStockCount = 0;
+        for (PriceBucketCount bucketCount : productRepository.countByPriceBucket(bucketSize, filter)) {
+            double fromPrice = bucketCount.getBucket() * bucketSize;
+            priceBuckets.add(new PriceBucket(fromPrice, fromPrice + bucketSize, bucketCount.getProductsCount()));
+            productsCount += bucketCount.getProductsCount();
+            inStockCount += bucketCount.getInStockCount();
+        }
+        if (priceBuckets.size() > MAX_PRICE_BUCKETS) {
+            throw tooManyPriceBuckets();
+        }
+        log.info("Counted {} products in {} price buckets", productsCount, priceBuckets.size());
+        return new ProductFacetsResponse(priceBuckets, inStockCount, productsCount - inStockCount);
+    }
+
+    @Transactional
+    public Map<Long, Double> reserveStock(Map<Long, Double> quantitiesByProductId) {
+        log.info("Reserving stock for products: {}", quantitiesByProductId.keySet());
+        SortedMap<Long, Double> sortedQuantities = new TreeMap<>(quantitiesByProductId);
+        Map<Long, Double> stockByProductId = productRepository.findStockForUpdate(sortedQuantities.keySet()).stream()
+                .collect(Collectors.toMap(ProductStock::getId, ProductStock::getQuantity));
+
+        List<String> errors = new ArrayList<>();
+        sortedQuantities.forEach((productId, quantity) -> {
+            Double stock = stockByProductId.get(productId);
+            if (stock == null || stock < quantity) {
+                errors.add("Not enough product with id: " + productId);
+            }
+        });
+        if (!errors.isEmpty()) {
+            log.info("Stock reservation failed: {}", errors);
+            throw new NotEnoughProductStockException(errors);
+        }
+
+        //One JDBC batch for the whole order instead of one statement per line.
+        //The rows are locked and checked above, the stock condition only guards against a bug letting it go negative.
+        //Pending changes are flushed first, so none of them is written after the batch
+        entityManager.flush();
+        List<Object[]> batchArgs = new ArrayList<>(sortedQuantities.size());
+        sortedQuantities.forEach((productId, quantity) -> batchArgs.add(new Object[]{quantity, productId, quantity}));
+        int[] updateCounts = jdbcTemplate.batchUpdate(DECREASE_STOCK_SQL, batchArgs);
+
+        Map<Long, Double> remainingStockByProductId = new HashMap<>();
+        int i = 0;
+        for (Map.Entry<Long, Double> entry : sortedQuantities.entrySet()) {
+            if (updateCounts[i++] == 0) {
+                errors.add("Not enough product with id: " + entry.getKey());
+            }
+            remainingStockByProductId.put(entry.getKey(), stockByProductId.get(entry.getKey()) - entry.getValue());
+        }
+        if (!errors.isEmpty()) {
+            //Rolls back the lines already decreased
+            log.error("Stock reservation failed after the check: {}", errors);
+            throw new NotEnoughProductStockException(errors);
+        }
+        productCacheInvalidator.evictAfterCommit(sortedQuantities.keySet());
+        log.info("Stock reserved successfully");
+        return remainingStockByProductId;
+    }
+
+    private InvalidMethodArgumentsException tooManyPriceBuckets() {
+        return new InvalidMethodArgumentsException(
+                String.format("Price range must not have more than %d buckets, use a larger bucket size", MAX_PRICE_BUCKETS));
+    }
+
+    private void validateFilter(ProductFilter filter) {
+        if ((filter.getMinPrice() != null && filter.getMinPrice() < 0)
+                || (filter.getMaxPrice() != null && filter.getMaxPrice() < 0)) {
+            throw new InvalidMethodArgumentsException("Price must not be negative");
+        }
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null && filter.getMinPrice() > filter.getMaxPrice()) {
+            throw new InvalidMethodArgumentsException("Minimum price must not be greater than maximum price");
+        }
+    }
+
+    //Parses "field[:asc|desc],..." into a Sort over the whitelisted fields only, so a bad or unindexed
+    //property is rejected here instead of failing in the DB or sorting the whole table.
+    //The id is appended in the direction of the first field, which lets the (field, id) index be read backwards
+    private Sort parseSort(String sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+        Set<ProductSortField> sortFields = EnumSet.noneOf(ProductSortField.class);
+        for (String sortOrder : sort.split(",")) {
+            String[] parts = sortOrder.trim().split(":");
+            if (parts.length > 2) {
+                throw new InvalidMethodArgumentsException(String.format("Invalid sort order: %s", sortOrder));
+            }
+            ProductSortField sortField = ProductSortField.fromString(parts[0].trim());
+            if (!sortFields.add(sortField)) {
+                throw new InvalidMethodArgumentsException(
+                        String.format("Products are already sorted by: %s", sortField.getProperty()));
+            }
+            Sort.Direction direction = parts.length == 2
+                    ? Sort.Direction.fromOptionalString(parts[1].trim()).orElseThrow(() -> new InvalidMethodArgumentsException(
+                    String.format("Invalid sort direction: %s", parts[1].trim())))
+                    : Sort.Direction.ASC;
+            orders.add(new Sort.Order(direction, sortField.getProperty()));
+        }
+        if (orders.isEmpty()) {
+            throw new InvalidMethodArgumentsException(String.format("Invalid sort order: %s", sort));
+        }
+        if (!sortFields.contains(ProductSortField.ID)) {
+            orders.add(new Sort.Order(orders.get(0).getDirection(), ProductSortField.ID.getProperty()));
+        }
+        return Sort.by(orders);
+    }
+
+    @lombok.Value
+    private static class ProductSnapshot {
+        Long id;
+        String name;
+        String description;
+        double price;
+        double quantity;
+        Instant updatedAt;
+
+        static ProductSnapshot of(Product product) {
+            return new ProductSnapshot(product.getId(), product.getName(), product.getDescription(),
+                    product.getPrice(), product.getQuantity(), product.getUpdatedAt());
+        }
+
+        Product toProduct() {
+            Product product = new Product();
+            product.setId(id);
+            product.setName(name);
+            product.setDescription(description);
+            product.setPrice(price);
+            product.setQuantity(quantity);
+            product.setUpdatedAt(updatedAt);
+            return product;
         }
-        product.setQuantity(product.getQuantity() - decrementAmount);
-        productRepository.save(product);
-        log.info("Stock decreased successfully");
     }
 }
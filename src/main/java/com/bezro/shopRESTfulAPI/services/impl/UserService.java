@@ -6,21 +6,22 @@ import com.bezro.shopRESTfulAPI.entities.UserRole;
 import com.bezro.shopRESTfulAPI.exceptions.InvalidMethodArgumentsException;
 import com.bezro.shopRESTfulAPI.repositories.UserRepository;
 import com.bezro.shopRESTfulAPI.services.RoleService;
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Objects;
 import java.util.Set;
 
 @Slf4j
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
     private final RoleService roleService;
     private final PasswordEncoder passwordEncoder;
@@ -38,6 +39,11 @@ public class UserService implements UserDetailsService {
                 String.format("User with id: %d does not exist", id)));
     }
 
+    // Lazy reference for associations, it does not query the users table
+    public User getReferenceById(Long id) {
+        return userRepository.getReferenceById(id);
+    }
+
     public UserDetails findByUsername(String username) {
         log.info("Finding user by username: {}", username);
         return userRepository.findByUsername(username)
@@ -59,6 +65,18 @@ public class UserService implements UserDetailsService {
         return findByUsername(username);
     }
 
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        log.info("Rehashing password for user: {}", userDetails.getUsername());
+        userRepository.updatePassword(userDetails.getUsername(), newPassword);
+        if (userDetails instanceof User user) {
+            user.setPassword(newPassword);
+            return user;
+        }
+        return findByUsername(userDetails.getUsername());
+    }
+
     public User createNewUser(RegistrationUserDto registrationUserDto) {
         log.info("Creating new user: {}", registrationUserDto.getUsername());
         User user = new User();
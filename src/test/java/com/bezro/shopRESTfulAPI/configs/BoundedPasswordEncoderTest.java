@@ -0,0 +1,101 @@
+package com.bezro.shopRESTfulAPI.configs;
+
+import com.bezro.shopRESTfulAPI.exceptions.PasswordHashingBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BoundedPasswordEncoderTest {
+    private MeterRegistry meterRegistry;
+
+    private BoundedPasswordEncoder passwordEncoder;
+
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        callers = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        if (passwordEncoder != null) {
+            passwordEncoder.destroy();
+        }
+    }
+
+    @Test
+    void shouldEncodeAndMatch_whenPoolHasCapacity() {
+        // Arrange
+        passwordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 1, 1, meterRegistry);
+
+        // Act
+        String hash = passwordEncoder.encode("Password1!");
+
+        // Assert
+        assertTrue(passwordEncoder.matches("Password1!", hash), "Password should match its hash");
+        assertFalse(passwordEncoder.matches("Invalid", hash), "Other password should not match the hash");
+        assertEquals(1, meterRegistry.get("security.password.hashing").tag("operation", "encode").timer().count(),
+                "Encode latency should be recorded");
+        assertEquals(2, meterRegistry.get("security.password.hashing").tag("operation", "matches").timer().count(),
+                "Matches latency should be recorded");
+    }
+
+    @Test
+    void shouldUpgradeEncoding_whenStrengthIsRaised() {
+        // Arrange
+        String weakHash = new BCryptPasswordEncoder(4).encode("Password1!");
+        passwordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 1, 1, meterRegistry);
+
+        // Act
+        // Assert
+        assertTrue(passwordEncoder.upgradeEncoding(weakHash), "Hash with a lower strength should be upgraded");
+    }
+
+    @Test
+    void shouldThrowPasswordHashingBusyException_whenQueueIsFull() throws Exception {
+        // Arrange
+        CountDownLatch hashingStarted = new CountDownLatch(1);
+        CountDownLatch releaseHashing = new CountDownLatch(1);
+        PasswordEncoder slowEncoder = mock(PasswordEncoder.class);
+        when(slowEncoder.encode(any())).thenAnswer(invocation -> {
+            hashingStarted.countDown();
+            releaseHashing.await();
+            return "hash";
+        });
+        passwordEncoder = new BoundedPasswordEncoder(slowEncoder, 1, 1, 3, meterRegistry);
+
+        // Act
+        Future<String> running = callers.submit(() -> passwordEncoder.encode("first"));
+        assertTrue(hashingStarted.await(5, TimeUnit.SECONDS), "First hash should be running");
+        Future<String> queued = callers.submit(() -> passwordEncoder.encode("second"));
+        while (passwordEncoder.getQueueDepth() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // Assert
+        PasswordHashingBusyException exception = assertThrows(PasswordHashingBusyException.class,
+                () -> passwordEncoder.encode("third"),
+                "Hashing over the pool and queue capacity should be rejected");
+        assertEquals(3, exception.getRetryAfterSeconds(), "Should have the configured retry after");
+        assertEquals(1.0, meterRegistry.get("security.password.hashing.queue.depth").gauge().value(),
+                "Queue depth should be reported");
+
+        releaseHashing.countDown();
+        assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+    }
+}
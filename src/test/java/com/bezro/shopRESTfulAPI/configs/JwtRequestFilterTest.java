@@ -0,0 +1,180 @@
+package com.bezro.shopRESTfulAPI.configs;
+
+import com.bezro.shopRESTfulAPI.Benchmark;
+import com.bezro.shopRESTfulAPI.entities.Role;
+import com.bezro.shopRESTfulAPI.entities.User;
+import com.bezro.shopRESTfulAPI.jwtUtils.AuthenticatedUser;
+import com.bezro.shopRESTfulAPI.jwtUtils.JwtTokenCache;
+import com.bezro.shopRESTfulAPI.jwtUtils.JwtTokenUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@Slf4j
+class JwtRequestFilterTest {
+    private static final int WARMUP_REQUESTS_COUNT = 2_000;
+    private static final int MEASURED_REQUESTS_COUNT = 20_000;
+
+    private JwtTokenUtils jwtTokenUtils;
+
+    private JwtTokenCache jwtTokenCache;
+
+    private JwtRequestFilter jwtRequestFilter;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenUtils = spy(new JwtTokenUtils());
+        jwtTokenCache = new JwtTokenCache(true, 100, new SimpleMeterRegistry());
+        jwtRequestFilter = new JwtRequestFilter(jwtTokenUtils, jwtTokenCache);
+
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("username");
+        Role role = new Role();
+        role.setName("ROLE_USER");
+        user.setRoles(Set.of(role));
+        token = jwtTokenUtils.generateToken(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletRequest authorizedRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    @Test
+    void shouldParseTokenOnce_whenAuthenticatingRequest() throws Exception {
+        // Act
+        jwtRequestFilter.doFilter(authorizedRequest(), new MockHttpServletResponse(), new MockFilterChain());
+
+        // Assert
+        verify(jwtTokenUtils, times(1)).getAllClaimsFromToken(token);
+        verify(jwtTokenUtils, never()).getUsername(any());
+        verify(jwtTokenUtils, never()).getRoles(any());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication, "Request should be authenticated");
+        AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+        assertEquals(1L, principal.getId(), "User id should come from the token");
+        assertEquals("username", principal.getUsername(), "Username should come from the token");
+        assertEquals("username", authentication.getName(), "Authentication name should be the username");
+        assertTrue(authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).anyMatch("ROLE_USER"::equals),
+                "Roles should come from the token");
+    }
+
+    @Test
+    void shouldVerifyTokenOnce_whenTokenIsReused() throws Exception {
+        // Act
+        for (int i = 0; i < 3; i++) {
+            jwtRequestFilter.doFilter(authorizedRequest(), new MockHttpServletResponse(), new MockFilterChain());
+            SecurityContextHolder.clearContext();
+        }
+
+        // Assert
+        verify(jwtTokenUtils, times(1)).getAllClaimsFromToken(token);
+        assertEquals(1, jwtTokenCache.size(), "Verified token should be cached once");
+    }
+
+    @Test
+    void shouldVerifyTokenEveryTime_whenCacheIsDisabled() throws Exception {
+        // Arrange
+        JwtRequestFilter filter = new JwtRequestFilter(jwtTokenUtils, new JwtTokenCache(false, 100, new SimpleMeterRegistry()));
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            filter.doFilter(authorizedRequest(), new MockHttpServletResponse(), new MockFilterChain());
+            SecurityContextHolder.clearContext();
+        }
+
+        // Assert
+        verify(jwtTokenUtils, times(3)).getAllClaimsFromToken(token);
+    }
+
+    @Test
+    void shouldRecordCacheHitsAndMisses() throws Exception {
+        // Arrange
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtRequestFilter filter = new JwtRequestFilter(jwtTokenUtils, new JwtTokenCache(true, 100, meterRegistry));
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            filter.doFilter(authorizedRequest(), new MockHttpServletResponse(), new MockFilterChain());
+            SecurityContextHolder.clearContext();
+        }
+
+        // Assert
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", JwtTokenCache.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count(), "Reused token should be served from the cache");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", JwtTokenCache.CACHE_NAME).tag("result", "miss")
+                .functionCounter().count(), "First use of the token should miss the cache");
+    }
+
+    @Test
+    void shouldNotAuthenticate_whenTokenIsInvalid() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token + "invalid");
+
+        // Act
+        jwtRequestFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Assert
+        assertNull(SecurityContextHolder.getContext().getAuthentication(), "Request should not be authenticated");
+    }
+
+    private long averageFilterNanos(JwtRequestFilter filter) throws Exception {
+        for (int i = 0; i < WARMUP_REQUESTS_COUNT; i++) {
+            filter.doFilter(authorizedRequest(), new MockHttpServletResponse(), new MockFilterChain());
+            SecurityContextHolder.clearContext();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_REQUESTS_COUNT; i++) {
+            filter.doFilter(authorizedRequest(), new MockHttpServletResponse(), new MockFilterChain());
+            SecurityContextHolder.clearContext();
+        }
+        return (System.nanoTime() - start) / MEASURED_REQUESTS_COUNT;
+    }
+
+    @Benchmark
+    void shouldMeasureFilterCostPerRequest() throws Exception {
+        // Arrange
+        JwtTokenUtils uncachedTokenUtils = spy(new JwtTokenUtils());
+        JwtTokenUtils cachedTokenUtils = spy(new JwtTokenUtils());
+        JwtRequestFilter uncachedFilter =
+                new JwtRequestFilter(uncachedTokenUtils, new JwtTokenCache(false, 100, new SimpleMeterRegistry()));
+        JwtRequestFilter cachedFilter =
+                new JwtRequestFilter(cachedTokenUtils, new JwtTokenCache(true, 100, new SimpleMeterRegistry()));
+
+        // Act
+        long uncachedNanos = averageFilterNanos(uncachedFilter);
+        long cachedNanos = averageFilterNanos(cachedFilter);
+
+        // Assert
+        log.info("JWT filter average cost over {} requests: {} µs without cache, {} µs with cache",
+                MEASURED_REQUESTS_COUNT, uncachedNanos / 1_000.0, cachedNanos / 1_000.0);
+        verify(uncachedTokenUtils, times(WARMUP_REQUESTS_COUNT + MEASURED_REQUESTS_COUNT)).getAllClaimsFromToken(token);
+        verify(cachedTokenUtils, times(1)).getAllClaimsFromToken(token);
+    }
+}
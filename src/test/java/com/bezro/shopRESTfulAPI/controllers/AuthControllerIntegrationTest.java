@@ -1,10 +1,15 @@
 package com.bezro.shopRESTfulAPI.controllers;
 
+import com.bezro.shopRESTfulAPI.constants.CacheNames;
 import com.bezro.shopRESTfulAPI.entities.Role;
 import com.bezro.shopRESTfulAPI.entities.User;
 import com.bezro.shopRESTfulAPI.repositories.UserRepository;
 import com.bezro.shopRESTfulAPI.services.AuthService;
+import com.bezro.shopRESTfulAPI.services.impl.UserService;
+import jakarta.persistence.EntityManagerFactory;
 import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,6 +19,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
@@ -26,6 +32,8 @@ import java.util.Optional;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -37,6 +45,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @ActiveProfiles("test")
 @AutoConfigureMockMvc
 class AuthControllerIntegrationTest {
+    private static final int LOGINS_COUNT = 3;
+
     @Autowired
     private WebApplicationContext context;
 
@@ -46,6 +56,12 @@ class AuthControllerIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @SpyBean
+    private UserService userService;
+
     @InjectMocks
     private AuthController authController;
 
@@ -78,6 +94,31 @@ class AuthControllerIntegrationTest {
                 .andExpect(jsonPath("$.token").isNotEmpty());
     }
 
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @DisplayName("Test each login loads the user once, with its roles in the same query")
+    void shouldLoadUserOnce_WhenLoginWithValidCredentials() throws Exception {
+        // Arrange
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        for (int i = 0; i < LOGINS_COUNT; i++) {
+            mockMvc.perform(post("/api/v1/auth/login")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .characterEncoding("UTF-8")
+                            .content("{\"username\": \"userTest\", \"password\": \"100\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.token").isNotEmpty());
+        }
+
+        // Assert
+        verify(userService, times(LOGINS_COUNT)).loadUserByUsername("userTest");
+        assertEquals(LOGINS_COUNT, statistics.getQueryExecutionCount(), "Each login should run a single user query");
+        assertEquals(0, statistics.getCollectionFetchCount(), "Roles should be fetched together with the user");
+    }
+
     @Test
     @Sql(scripts = "classpath:db/populateDB.sql")
     @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
@@ -203,6 +244,41 @@ class AuthControllerIntegrationTest {
         assertFalse(isAdminRolePresent, "User should not have ROLE_ADMIN");
     }
 
+    private void register(String username, String email) throws Exception {
+        mockMvc.perform(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding("UTF-8")
+                        .content("{\"username\": \"" + username + "\"," +
+                                " \"password\": \"Password1!\"," +
+                                " \"confirmPassword\": \"Password1!\"," +
+                                " \"email\": \"" + email + "\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @DisplayName("Test register takes the user role from the second-level cache after the first registration")
+    void shouldNotQueryRole_WhenRegisterAfterWarmup() throws Exception {
+        // Arrange
+        register("NewUser", "email@email.com");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        register("OtherUser", "other@email.com");
+
+        // Assert
+        assertEquals(1, statistics.getQueryRegionStatistics(CacheNames.ROLE_QUERIES).getHitCount(),
+                "Role lookup should be served from the query cache");
+        assertEquals(0, statistics.getQueryRegionStatistics(CacheNames.ROLE_QUERIES).getMissCount(),
+                "Role lookup should not run against the DB");
+        assertEquals(1, statistics.getDomainDataRegionStatistics(CacheNames.ROLE_ENTITIES).getHitCount(),
+                "Role should be served from the entity cache");
+        assertEquals(0, statistics.getDomainDataRegionStatistics(CacheNames.ROLE_ENTITIES).getMissCount(),
+                "Role should not be loaded from the DB");
+    }
+
     @Test
     @DisplayName("Test get 400 status when register with empty payload")
     void shouldGetBadRequest_WhenRegisterWithEmptyData() throws Exception {
@@ -3,6 +3,8 @@ package com.bezro.shopRESTfulAPI.controllers;
 import com.bezro.shopRESTfulAPI.dtos.JwtResponse;
 import com.bezro.shopRESTfulAPI.dtos.UserDto;
 import com.bezro.shopRESTfulAPI.exceptions.InvalidLoginCredentialsException;
+import com.bezro.shopRESTfulAPI.exceptions.PasswordHashingBusyException;
+import com.bezro.shopRESTfulAPI.jwtUtils.JwtTokenCache;
 import com.bezro.shopRESTfulAPI.jwtUtils.JwtTokenUtils;
 import com.bezro.shopRESTfulAPI.services.AuthService;
 import org.junit.jupiter.api.Test;
@@ -21,6 +23,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -43,6 +46,9 @@ class AuthControllerTest {
     @MockBean
     private JwtTokenUtils jwtTokenUtils;
 
+    @MockBean
+    private JwtTokenCache jwtTokenCache;
+
     @Test
     void shouldLoginAndGetToken_WhenLoginWithValidCredentials() throws Exception {
         // Arrange
@@ -109,6 +115,22 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.message").value("Error message"));
     }
 
+    @Test
+    void shouldGetServiceUnavailable_WhenPasswordHashingIsBusy() throws Exception {
+        // Arrange
+        when(authenticationManager.authenticate(any())).thenThrow(new PasswordHashingBusyException("Busy", 2));
+        // Act
+        // Assert
+        mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding("UTF-8")
+                        .content("{\"username\": \"User\", \"password\": \"Password1!\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.status").value(503))
+                .andExpect(jsonPath("$.message").value("Busy"));
+    }
+
     @Test
     void shouldRegisterAndGetUserDto_WhenRegisterWithValidData() throws Exception {
         // Arrange
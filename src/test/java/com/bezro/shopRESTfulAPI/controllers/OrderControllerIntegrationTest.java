@@ -1,9 +1,17 @@
 package com.bezro.shopRESTfulAPI.controllers;
 
+import com.bezro.shopRESTfulAPI.dtos.UpdateOrderDto;
+import com.bezro.shopRESTfulAPI.entities.OrderItem;
 import com.bezro.shopRESTfulAPI.entities.Product;
+import com.bezro.shopRESTfulAPI.repositories.CartRepository;
 import com.bezro.shopRESTfulAPI.services.OrderService;
 import com.bezro.shopRESTfulAPI.services.ProductService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
 import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,27 +21,39 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.util.Map;
+
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+@Slf4j
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 @ExtendWith(MockitoExtension.class)
 @SpringBootTest
 @ActiveProfiles("test")
 @AutoConfigureMockMvc
 class OrderControllerIntegrationTest {
+    //Cart items, their product, stock lock, order insert and cart delete. The stock and order item batches
+    //are sent through JDBC, next to Hibernate, and are not in its statistics
+    private static final int MAX_CHECKOUT_STATEMENTS = 5;
+
     @Autowired
     private WebApplicationContext context;
 
@@ -43,6 +63,15 @@ class OrderControllerIntegrationTest {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
     @InjectMocks
     private OrderController orderController;
 
@@ -91,6 +120,57 @@ class OrderControllerIntegrationTest {
                 .andExpect(jsonPath("$.orderItems[0].product.description").value("Description 2"));
     }
 
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @WithUserDetails("userTest")
+    @jakarta.transaction.Transactional
+    @DisplayName("Test create order does not read back the order items it has just stored")
+    void shouldNotReloadOrderItems_WhenCreateOrder() throws Exception {
+        // Arrange
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        mockMvc.perform(post("/api/v1/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding("UTF-8")
+                        .content("{}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderItems[0].id").exists())
+                .andExpect(jsonPath("$.orderItems[0].quantity").value(7.0));
+        //Flush the pending changes, so they are counted as well
+        entityManager.flush();
+
+        // Assert
+        log.info("Statements per checkout: {} prepared, {} queries executed",
+                statistics.getPrepareStatementCount(), statistics.getQueryExecutionCount());
+        assertEquals(0, statistics.getEntityStatistics(OrderItem.class.getName()).getLoadCount(),
+                "Order items should be built from memory, not loaded back");
+        assertTrue(statistics.getPrepareStatementCount() <= MAX_CHECKOUT_STATEMENTS,
+                "Checkout should prepare at most " + MAX_CHECKOUT_STATEMENTS + " statements, prepared: "
+                        + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @WithUserDetails("userTest")
+    @jakarta.transaction.Transactional
+    @DisplayName("Test the cart is cleared when create order success")
+    void shouldClearCart_WhenCreateOrder() throws Exception {
+        // Arrange
+        // Act
+        mockMvc.perform(post("/api/v1/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding("UTF-8")
+                        .content("{}"))
+                .andExpect(status().isOk());
+
+        // Assert
+        assertTrue(cartRepository.findByUser_Id(2L).orElseThrow().isEmpty(), "Cart should be empty after checkout");
+    }
+
     @Test
     @Sql(scripts = "classpath:db/populateDB.sql")
     @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
@@ -120,6 +200,8 @@ class OrderControllerIntegrationTest {
         // Arrange
         Product product = productService.findById(2L);
         product.setQuantity(2.0);
+        //findById returns a copy of the cached product
+        entityManager.merge(product);
 
         // Act
         // Assert
@@ -292,6 +374,80 @@ class OrderControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].orderItems[0].product.description").value("Description 2"));
     }
 
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @WithUserDetails("userTest")
+    @jakarta.transaction.Transactional
+    @DisplayName("Test get 304 without loading the orders when they did not change")
+    void shouldReturnNotModified_WhenGetAllOrdersWithCurrentValidators() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v1/orders"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse();
+        String eTag = response.getHeader(HttpHeaders.ETAG);
+        String lastModified = response.getHeader(HttpHeaders.LAST_MODIFIED);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        // Assert
+        mockMvc.perform(get("/api/v1/orders").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/v1/orders").header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+        assertEquals(2, statistics.getPrepareStatementCount(), "Only the orders version should be queried");
+        assertEquals(0, statistics.getEntityLoadCount(), "Orders should not be loaded");
+
+        UpdateOrderDto updateOrderDto = new UpdateOrderDto();
+        updateOrderDto.setStatus("DELIVERED");
+        orderService.updateOrderStatus(updateOrderDto, 1L);
+        mockMvc.perform(get("/api/v1/orders").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("DELIVERED"));
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @WithUserDetails("userTest")
+    @DisplayName("Test get the orders again when a product in them changed")
+    void shouldReturnOrders_WhenGetAllOrdersAfterProductChanged() throws Exception {
+        // Arrange
+        String eTag = mockMvc.perform(get("/api/v1/orders"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act
+        productService.reserveStock(Map.of(2L, 2.0));
+
+        // Assert
+        mockMvc.perform(get("/api/v1/orders").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].orderItems[0].product.quantity").value(5.0));
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @WithUserDetails("userTest")
+    @DisplayName("Test get 304 for the orders when a product not in them changed")
+    void shouldReturnNotModified_WhenGetAllOrdersAfterOtherProductChanged() throws Exception {
+        // Arrange
+        String eTag = mockMvc.perform(get("/api/v1/orders"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act
+        productService.reserveStock(Map.of(1L, 2.0));
+
+        // Assert
+        mockMvc.perform(get("/api/v1/orders").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     @Sql(scripts = "classpath:db/populateDB.sql")
     @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
@@ -1,9 +1,15 @@
 package com.bezro.shopRESTfulAPI.controllers;
 
+import com.bezro.shopRESTfulAPI.dtos.ProductFilter;
 import com.bezro.shopRESTfulAPI.entities.Product;
 import com.bezro.shopRESTfulAPI.repositories.ProductRepository;
 import com.bezro.shopRESTfulAPI.services.ProductService;
+import com.bezro.shopRESTfulAPI.services.impl.ProductCatalogVersion;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
 import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,21 +19,32 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -46,6 +63,12 @@ class ProductControllerIntegrationTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductCatalogVersion productCatalogVersion;
+
     @InjectMocks
     private ProductController productController;
 
@@ -167,7 +190,7 @@ class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$.products").isArray())
                 .andExpect(jsonPath("$.products[0].id").value("3"))
                 .andExpect(jsonPath("$.products[0].name").value("A-Product 3"))
-                .andExpect(jsonPath("$.products[0].description").value("Description 3"))
+                .andExpect(jsonPath("$.products[0].description").doesNotExist())
                 .andExpect(jsonPath("$.products[0].price").value(55.0))
                 .andExpect(jsonPath("$.products[0].quantity").value(77.0));
     }
@@ -209,6 +232,48 @@ class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$.products.size()").value(3));
     }
 
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @jakarta.transaction.Transactional
+    @DisplayName("Test get estimated total when get all products without includeTotal")
+    void shouldReturnEstimatedTotal_WhenGetAllProductsPaginatedWithoutIncludeTotal() throws Exception {
+        // Arrange
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        mockMvc.perform(get("/api/v1/products?pageNumber=0&pageSize=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(3))
+                .andExpect(jsonPath("$.totalExact").value(false));
+        statistics.clear();
+
+        // Act
+        // Assert
+        mockMvc.perform(get("/api/v1/products?pageNumber=1&pageSize=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(3))
+                .andExpect(jsonPath("$.totalPages").value(2))
+                .andExpect(jsonPath("$.totalExact").value(false))
+                .andExpect(jsonPath("$.products[0].id").value("3"));
+        assertEquals(1, statistics.getPrepareStatementCount(), "Page should be read without a count query");
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @jakarta.transaction.Transactional
+    @DisplayName("Test get exact total when get all products with includeTotal")
+    void shouldReturnExactTotal_WhenGetAllProductsPaginatedWithIncludeTotal() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        mockMvc.perform(get("/api/v1/products?pageNumber=0&pageSize=2&sort=name&includeTotal=true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(3))
+                .andExpect(jsonPath("$.totalPages").value(2))
+                .andExpect(jsonPath("$.totalExact").value(true))
+                .andExpect(jsonPath("$.products[0].name").value("A-Product 3"));
+    }
+
     @Test
     @Sql(scripts = "classpath:db/populateDB.sql")
     @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
@@ -229,11 +294,506 @@ class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$.products").isArray())
                 .andExpect(jsonPath("$.products[0].id").value("2"))
                 .andExpect(jsonPath("$.products[0].name").value("Product 2"))
-                .andExpect(jsonPath("$.products[0].description").value("Description 2"))
+                .andExpect(jsonPath("$.products[0].description").doesNotExist())
                 .andExpect(jsonPath("$.products[0].price").value(5.0))
                 .andExpect(jsonPath("$.products[0].quantity").value(7.0));
     }
 
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @jakarta.transaction.Transactional
+    @DisplayName("Test get all products sorted by several fields in both directions")
+    void shouldReturnListOfProducts_WhenGetAllProductsPaginatedMultiFieldSorted() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        mockMvc.perform(get("/api/v1/products?pageNumber=0&pageSize=3&sort=price:desc,name:desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].name").value("A-Product 3"))
+                .andExpect(jsonPath("$.products[1].name").value("Product 2"))
+                .andExpect(jsonPath("$.products[2].name").value("Product 1"));
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @jakarta.transaction.Transactional
+    @DisplayName("Test get 400 when get all products sorted by not whitelisted field")
+    void shouldThrowBadRequest_WhenGetAllProductsPaginatedSortedByNotWhitelistedField() throws Exception {
+        // Arrange
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        // Assert
+        mockMvc.perform(get("/api/v1/products?pageNumber=0&pageSize=3&sort=description"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Products cannot be sorted by: description"));
+        assertEquals(0, statistics.getPrepareStatementCount(), "Invalid sort should be rejected before the DB");
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @jakarta.transaction.Transactional
+    @DisplayName("Test get all products filtered by price range and stock")
+    void shouldReturnFilteredProducts_WhenGetAllProductsPaginatedWithFilter() throws Exception {
+        // Arrange
+        productService.reserveStock(Map.of(1L, 7.0));
+
+        // Act
+        // Assert
+        mockMvc.perform(get("/api/v1/products?pageNumber=0&pageSize=5&sort=price&maxPrice=50&inStock=true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(1))
+                .andExpect(jsonPath("$.totalExact").value(true))
+                .andExpect(jsonPath("$.products.size()").value(1))
+                .andExpect(jsonPath("$.products[0].name").value("Product 2"));
+        mockMvc.perform(get("/api/v1/products?pageNumber=0&pageSize=5&sort=price&minPrice=5&maxPrice=5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(2))
+                .andExpect(jsonPath("$.products[0].name").value("Product 1"))
+                .andExpect(jsonPath("$.products[1].name").value("Product 2"));
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @jakarta.transaction.Transactional
+    @DisplayName("Test scroll products filtered by price range")
+    void shouldReturnFilteredSlices_WhenScrollProductsWithFilter() throws Exception {
+        // Arrange
+        // Act
+        MvcResult firstSlice = mockMvc.perform(get("/api/v1/products/scroll?size=1&sort=price&minPrice=1&maxPrice=10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].id").value("1"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andReturn();
+        String nextCursor = JsonPath.read(firstSlice.getResponse().getContentAsString(), "$.nextCursor");
+
+        // Assert
+        mockMvc.perform(get("/api/v1/products/scroll")
+                        .param("size", "1")
+                        .param("sort", "price")
+                        .param("minPrice", "1")
+                        .param("maxPrice", "10")
+                        .param("after", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].id").value("2"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @jakarta.transaction.Transactional
+    @DisplayName("Test get product facets with a single query")
+    void shouldReturnFacets_WhenGetProductFacets() throws Exception {
+        // Arrange
+        productService.reserveStock(Map.of(1L, 7.0));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        // Assert
+        mockMvc.perform(get("/api/v1/products/facets?bucketSize=10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.priceBuckets.size()").value(2))
+                .andExpect(jsonPath("$.priceBuckets[0].fromPrice").value(0.0))
+                .andExpect(jsonPath("$.priceBuckets[0].toPrice").value(10.0))
+                .andExpect(jsonPath("$.priceBuckets[0].productsCount").value(2))
+                .andExpect(jsonPath("$.priceBuckets[1].fromPrice").value(50.0))
+                .andExpect(jsonPath("$.priceBuckets[1].productsCount").value(1))
+                .andExpect(jsonPath("$.inStockCount").value(2))
+                .andExpect(jsonPath("$.outOfStockCount").value(1));
+        assertEquals(1, statistics.getPrepareStatementCount(), "All facets should be counted with a single query");
+
+        mockMvc.perform(get("/api/v1/products/facets?bucketSize=10&maxPrice=50&inStock=true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.priceBuckets.size()").value(1))
+                .andExpect(jsonPath("$.priceBuckets[0].productsCount").value(1))
+                .andExpect(jsonPath("$.inStockCount").value(1))
+                .andExpect(jsonPath("$.outOfStockCount").value(0));
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @jakarta.transaction.Transactional
+    @DisplayName("Test facets cached before a catalog version change are not served at the new version")
+    void shouldNotReturnFacetsOfOldVersion_WhenCatalogVersionChanged() throws Exception {
+        // Arrange
+        ProductFilter filter = new ProductFilter(null, null, false);
+        assertEquals(3, productService.getProductFacets(10, filter).getInStockCount());
+        //A write the cache did not see, like a page loaded before a commit and cached after its eviction
+        productService.reserveStock(Map.of(1L, 7.0));
+
+        // Act
+        productCatalogVersion.increment();
+
+        // Assert
+        assertEquals(2, productService.getProductFacets(10, filter).getInStockCount(),
+                "Facets should be counted again for the new catalog version");
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @DisplayName("Test get 304 without querying the DB when the catalog did not change since the ETag")
+    void shouldReturnNotModified_WhenGetAllProductsWithCurrentETag() throws Exception {
+        // Arrange
+        String eTag = mockMvc.perform(get("/api/v1/products?pageNumber=0&pageSize=5"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        // Assert
+        mockMvc.perform(get("/api/v1/products?pageNumber=0&pageSize=5").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+        assertEquals(0, statistics.getPrepareStatementCount(), "Not modified listing should not query the DB");
+
+        productService.reserveStock(Map.of(1L, 1.0));
+        String newETag = mockMvc.perform(get("/api/v1/products?pageNumber=0&pageSize=5").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].quantity").value(6.0))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(newETag != null && !newETag.equals(eTag), "Stock change should change the ETag");
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @jakarta.transaction.Transactional
+    @DisplayName("Test get the cached encoded page, gzipped when the client accepts it")
+    void shouldReturnCachedBytes_WhenGetSameProductsPageAgain() throws Exception {
+        // Arrange
+        MvcResult result = mockMvc.perform(get("/api/v1/products?pageNumber=0&pageSize=2&sort=name"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn();
+        byte[] body = result.getResponse().getContentAsByteArray();
+
+        // Act
+        byte[] sameBody = mockMvc.perform(get("/api/v1/products?pageNumber=0&pageSize=2&sort=NAME"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        MvcResult gzippedResult = mockMvc.perform(get("/api/v1/products?pageNumber=0&pageSize=2&sort=name")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, Matchers.containsString(HttpHeaders.ACCEPT_ENCODING)))
+                .andReturn();
+
+        // Assert
+        assertArrayEquals(body, sameBody, "Sort in another case should be served the same page");
+        try (GZIPInputStream gzipStream = new GZIPInputStream(
+                new ByteArrayInputStream(gzippedResult.getResponse().getContentAsByteArray()))) {
+            assertArrayEquals(body, gzipStream.readAllBytes(), "Gzipped page should decompress to the same page");
+        }
+        assertNotEquals(result.getResponse().getHeader(HttpHeaders.ETAG), gzippedResult.getResponse().getHeader(HttpHeaders.ETAG),
+                "Gzipped page should have its own ETag");
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @WithUserDetails("adminTest")
+    @DisplayName("Test update prices and stock of many products with a result per product")
+    void shouldReturnResultPerProduct_WhenUpdateProducts() throws Exception {
+        // Arrange
+        String body = "[{\"id\":1, \"price\":9.5},"
+                + " {\"id\":2, \"quantityDelta\":-10},"
+                + " {\"id\":3},"
+                + " {\"id\":99, \"quantityDelta\":1},"
+                + " {\"id\":3, \"price\":60, \"quantityDelta\":-7}]";
+
+        // Act
+        mockMvc.perform(patch("/api/v1/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding("UTF-8")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updatedCount").value(2))
+                .andExpect(jsonPath("$.failedCount").value(3))
+                .andExpect(jsonPath("$.results[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$.results[1].status").value("INSUFFICIENT_STOCK"))
+                .andExpect(jsonPath("$.results[2].status").value("INVALID"))
+                .andExpect(jsonPath("$.results[3].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$.results[4].status").value("UPDATED"));
+
+        // Assert
+        assertEquals(9.5, productRepository.findById(1L).orElseThrow().getPrice());
+        assertEquals(7.0, productRepository.findById(2L).orElseThrow().getQuantity(), "Stock should not become negative");
+        Product repricedProduct = productRepository.findById(3L).orElseThrow();
+        assertEquals(60.0, repricedProduct.getPrice());
+        assertEquals(70.0, repricedProduct.getQuantity());
+        mockMvc.perform(get("/api/v1/products/search?q=product"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == 1)].price").value(9.5));
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @WithUserDetails("userTest")
+    @jakarta.transaction.Transactional
+    @DisplayName("Test for 403 response when updating many products by an unauthorized user")
+    void shouldGet403StatusCode_WhenUpdateProductsUnauthorizedUser() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        mockMvc.perform(patch("/api/v1/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding("UTF-8")
+                        .content("[{\"id\":1, \"price\":9.5}]"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @WithUserDetails("adminTest")
+    @jakarta.transaction.Transactional
+    @DisplayName("Test export all products as NDJSON with a single query")
+    void shouldStreamProducts_WhenExportProductsAsNdjson() throws Exception {
+        // Arrange
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        String body = mockMvc.perform(get("/api/v1/products/export"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, Matchers.startsWith("application/x-ndjson")))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.ndjson\""))
+                .andReturn().getResponse().getContentAsString();
+
+        // Assert
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length, "Should export a line per product");
+        assertEquals("Product 1", JsonPath.read(lines[0], "$.name"));
+        assertEquals("Description 3", JsonPath.read(lines[2], "$.description"));
+        assertEquals(1, statistics.getPrepareStatementCount(), "Catalog should be exported with a single query");
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @WithUserDetails("adminTest")
+    @jakarta.transaction.Transactional
+    @DisplayName("Test export all products as CSV")
+    void shouldStreamProducts_WhenExportProductsAsCsv() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        mockMvc.perform(get("/api/v1/products/export?format=csv"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, Matchers.startsWith("text/csv")))
+                .andExpect(content().string("id,name,description,price,quantity\n"
+                        + "1,Product 1,Description 1,5.0,7.0\n"
+                        + "2,Product 2,Description 2,5.0,7.0\n"
+                        + "3,A-Product 3,Description 3,55.0,77.0\n"));
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @WithUserDetails("adminTest")
+    @jakarta.transaction.Transactional
+    @DisplayName("Test get 400 when export products in a not supported format")
+    void shouldThrowBadRequest_WhenExportProductsWithInvalidFormat() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        mockMvc.perform(get("/api/v1/products/export?format=xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Not supported product file format: xml"));
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @WithUserDetails("userTest")
+    @jakarta.transaction.Transactional
+    @DisplayName("Test for 403 response when exporting products by an unauthorized user")
+    void shouldGet403StatusCode_WhenExportProductsUnauthorizedUser() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        mockMvc.perform(get("/api/v1/products/export"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("Test for 401 response when exporting products by an unauthenticated user")
+    void shouldGet401StatusCode_WhenExportProductsByUnauthenticatedUser() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        mockMvc.perform(get("/api/v1/products/export"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @WithUserDetails("adminTest")
+    @DisplayName("Test import products from NDJSON in chunks and report invalid lines")
+    void shouldImportValidLines_WhenImportProductsAsNdjson() throws Exception {
+        // Arrange
+        String body = "{\"name\":\"Imported 1\", \"description\":\"Imported\", \"price\":1.5, \"quantity\":2}\n"
+                + "not json\n"
+                + "{\"name\":\"\", \"price\":1.5, \"quantity\":2}\n"
+                + "\n"
+                + "{\"name\":\"Imported 2\", \"price\":2.5, \"quantity\":3}\n"
+                + "{\"name\":\"Imported 3\", \"price\":3.5, \"quantity\":4}\n";
+
+        // Act
+        mockMvc.perform(post("/api/v1/products/import?format=ndjson&chunkSize=2")
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.createdCount").value(3))
+                .andExpect(jsonPath("$.updatedCount").value(0))
+                .andExpect(jsonPath("$.failedCount").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value("Invalid JSON"))
+                .andExpect(jsonPath("$.errors[1].line").value(3))
+                .andExpect(jsonPath("$.errors[1].message").value("The name is required."));
+
+        // Assert
+        assertEquals(6, productRepository.count(), "Valid lines should be added");
+        mockMvc.perform(get("/api/v1/products/search?q=imported"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(3));
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @WithUserDetails("adminTest")
+    @jakarta.transaction.Transactional
+    @DisplayName("Test import products from CSV updates the product with the same name when upsert")
+    void shouldUpdateExistingProducts_WhenImportProductsAsCsvWithUpsert() throws Exception {
+        // Arrange
+        String body = "name,description,price,quantity\n"
+                + "Product 1,Updated description,9.5,3\n"
+                + "\"Quoted, product\",\"Multi\nline\",4,5\n"
+                + "Product 2,Description 2,abc,1\n";
+
+        // Act
+        mockMvc.perform(post("/api/v1/products/import?format=csv&upsert=true")
+                        .contentType("text/csv")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.createdCount").value(1))
+                .andExpect(jsonPath("$.updatedCount").value(1))
+                .andExpect(jsonPath("$.failedCount").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(5))
+                .andExpect(jsonPath("$.errors[0].message").value("Invalid price: abc"));
+
+        // Assert
+        assertEquals(4, productRepository.count(), "Only the new product should be added");
+        Product updatedProduct = productRepository.findById(1L).orElseThrow();
+        assertEquals("Updated description", updatedProduct.getDescription());
+        assertEquals(9.5, updatedProduct.getPrice());
+        assertEquals(3.0, updatedProduct.getQuantity());
+        Product createdProduct = productRepository.findAllByNameIn(List.of("Quoted, product")).get(0);
+        assertEquals("Multi\nline", createdProduct.getDescription());
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @WithUserDetails("adminTest")
+    @DisplayName("Test import with upsert counts a name repeated in the chunk as one product")
+    void shouldCountRepeatedNameOnce_WhenImportProductsWithUpsert() throws Exception {
+        // Arrange
+        String body = "{\"name\":\"Product 1\", \"price\":8.5, \"quantity\":2}\n"
+                + "{\"name\":\"Imported\", \"price\":1.5, \"quantity\":2}\n"
+                + "{\"name\":\"Product 1\", \"price\":9.5, \"quantity\":3}\n"
+                + "{\"name\":\"Imported\", \"price\":2.5, \"quantity\":4}\n";
+
+        // Act
+        mockMvc.perform(post("/api/v1/products/import?format=ndjson&upsert=true")
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.createdCount").value(1))
+                .andExpect(jsonPath("$.updatedCount").value(1))
+                .andExpect(jsonPath("$.failedCount").value(0));
+
+        // Assert
+        assertEquals(9.5, productRepository.findById(1L).orElseThrow().getPrice(), "Later line should win");
+        List<Product> importedProducts = productRepository.findAllByNameIn(List.of("Imported"));
+        assertEquals(1, importedProducts.size(), "Repeated new name should be added once");
+        assertEquals(2.5, importedProducts.get(0).getPrice(), "Later line should win");
+        mockMvc.perform(get("/api/v1/products/search?q=imported"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1))
+                .andExpect(jsonPath("$[0].id").value(importedProducts.get(0).getId()))
+                .andExpect(jsonPath("$[0].price").value(2.5));
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @WithUserDetails("adminTest")
+    @jakarta.transaction.Transactional
+    @DisplayName("Test get 400 when import products with a chunk size out of range")
+    void shouldThrowBadRequest_WhenImportProductsWithInvalidChunkSize() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        mockMvc.perform(post("/api/v1/products/import?chunkSize=0")
+                        .contentType("application/x-ndjson")
+                        .content("{\"name\":\"Imported 1\", \"price\":1.5, \"quantity\":2}\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Chunk size must be between 1 and 10000"));
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @WithUserDetails("userTest")
+    @jakarta.transaction.Transactional
+    @DisplayName("Test for 403 response when importing products by an unauthorized user")
+    void shouldGet403StatusCode_WhenImportProductsUnauthorizedUser() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        mockMvc.perform(post("/api/v1/products/import")
+                        .contentType("application/x-ndjson")
+                        .content("{\"name\":\"Imported 1\", \"price\":1.5, \"quantity\":2}\n"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("Test get 400 when get product facets with not positive bucket size")
+    void shouldThrowBadRequest_WhenGetProductFacetsWithInvalidBucketSize() throws Exception {
+        // Act
+        // Assert
+        mockMvc.perform(get("/api/v1/products/facets?bucketSize=0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Bucket size must be greater than 0"));
+    }
+
+    @Test
+    @DisplayName("Test get 400 when get all products with minimum price above maximum price")
+    void shouldThrowBadRequest_WhenGetAllProductsPaginatedWithInvalidPriceRange() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        mockMvc.perform(get("/api/v1/products?pageNumber=0&pageSize=5&minPrice=50&maxPrice=10"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Minimum price must not be greater than maximum price"));
+    }
+
     @Test
     @Sql(scripts = "classpath:db/populateDB.sql")
     @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
@@ -270,11 +830,172 @@ class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$.products").isArray())
                 .andExpect(jsonPath("$.products[0].id").value("2"))
                 .andExpect(jsonPath("$.products[0].name").value("Product 2"))
-                .andExpect(jsonPath("$.products[0].description").value("Description 2"))
+                .andExpect(jsonPath("$.products[0].description").doesNotExist())
                 .andExpect(jsonPath("$.products[0].price").value(5.0))
                 .andExpect(jsonPath("$.products[0].quantity").value(7.0));
     }
 
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @jakarta.transaction.Transactional
+    @DisplayName("Test scroll all products sorted by price with a cursor")
+    void shouldReturnNextSlice_WhenScrollProductsWithCursor() throws Exception {
+        // Arrange
+        // Act
+        MvcResult firstSlice = mockMvc.perform(get("/api/v1/products/scroll?size=2&sort=price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.size()").value(2))
+                .andExpect(jsonPath("$.products[0].id").value("1"))
+                .andExpect(jsonPath("$.products[1].id").value("2"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andExpect(jsonPath("$.totalItems").doesNotExist())
+                .andReturn();
+        String nextCursor = JsonPath.read(firstSlice.getResponse().getContentAsString(), "$.nextCursor");
+
+        // Assert
+        //Products 1 and 2 have the same price, the id decides the order
+        mockMvc.perform(get("/api/v1/products/scroll")
+                        .param("size", "2")
+                        .param("sort", "price")
+                        .param("after", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.size()").value(1))
+                .andExpect(jsonPath("$.products[0].id").value("3"))
+                .andExpect(jsonPath("$.products[0].name").value("A-Product 3"))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @jakarta.transaction.Transactional
+    @DisplayName("Test scroll products without a count query")
+    void shouldNotCountProducts_WhenScrollProducts() throws Exception {
+        // Arrange
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        mockMvc.perform(get("/api/v1/products/scroll?size=1&sort=name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].name").value("A-Product 3"))
+                .andExpect(jsonPath("$.hasNext").value(true));
+
+        // Assert
+        assertEquals(1, statistics.getPrepareStatementCount(), "Slice should be read with a single query");
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @jakarta.transaction.Transactional
+    @DisplayName("Test get 400 when scroll products with invalid cursor")
+    void shouldThrowBadRequest_WhenScrollProductsWithInvalidCursor() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        mockMvc.perform(get("/api/v1/products/scroll?after=invalid&sort=name"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @jakarta.transaction.Transactional
+    @DisplayName("Test get 400 when scroll products sorted by not supported field")
+    void shouldThrowBadRequest_WhenScrollProductsWithInvalidSort() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        mockMvc.perform(get("/api/v1/products/scroll?sort=description"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Products cannot be sorted by: description"));
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @jakarta.transaction.Transactional
+    @DisplayName("Test search products containing all words of the query")
+    void shouldReturnMatchingProducts_WhenSearchProducts() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        mockMvc.perform(get("/api/v1/products/search").param("q", "product 3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1))
+                .andExpect(jsonPath("$[0].id").value("3"))
+                .andExpect(jsonPath("$[0].name").value("A-Product 3"))
+                .andExpect(jsonPath("$[0].price").value(55.0));
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @WithUserDetails("adminTest")
+    @DisplayName("Test search finds added product without rebuilding the index")
+    void shouldFindAddedProduct_WhenSearchProductsAfterAddProduct() throws Exception {
+        // Arrange
+        mockMvc.perform(get("/api/v1/products/search?q=description"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(3));
+
+        // Act
+        mockMvc.perform(post("/api/v1/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding("UTF-8")
+                        .content("{\"name\":\"Wool Jacket\"," +
+                                " \"description\":\"Warm description\"," +
+                                " \"price\":5.5," +
+                                " \"quantity\":100.5}"
+                        ))
+                .andExpect(status().isOk());
+
+        // Assert
+        mockMvc.perform(get("/api/v1/products/search?q=jacket"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Wool Jacket"));
+        mockMvc.perform(get("/api/v1/products/search?q=description"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(4));
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @jakarta.transaction.Transactional
+    @DisplayName("Test suggest product names starting with the prefix")
+    void shouldReturnProductNames_WhenSuggestProducts() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        mockMvc.perform(get("/api/v1/products/suggest?prefix=PROD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(2))
+                .andExpect(jsonPath("$[0]").value("Product 1"))
+                .andExpect(jsonPath("$[1]").value("Product 2"));
+        mockMvc.perform(get("/api/v1/products/suggest?prefix=a-&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1))
+                .andExpect(jsonPath("$[0]").value("A-Product 3"));
+    }
+
+    @Test
+    @DisplayName("Test get 400 when search products with a query without words")
+    void shouldThrowBadRequest_WhenSearchProductsWithoutWords() throws Exception {
+        // Arrange
+        // Act
+        // Assert
+        mockMvc.perform(get("/api/v1/products/search?q=--"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Search query should contain at least one word"));
+    }
+
     @Test
     @Sql(scripts = "classpath:db/populateDB.sql")
     @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
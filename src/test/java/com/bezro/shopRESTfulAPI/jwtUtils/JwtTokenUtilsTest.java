@@ -6,6 +6,8 @@ import io.jsonwebtoken.Claims;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 
 import java.util.Date;
 import java.util.Set;
@@ -21,6 +23,7 @@ class JwtTokenUtilsTest {
     void setUp() {
         jwtTokenUtils = new JwtTokenUtils();
         user = new User();
+        user.setId(1L);
         user.setUsername("username");
         Role role = new Role();
         role.setName("User");
@@ -78,6 +81,32 @@ class JwtTokenUtilsTest {
         assertFalse(isExpired, "Token should not be expired");
     }
 
+    @Test
+    void shouldReturnUserIdWhenExtractedFromToken() {
+        // Arrange
+        String token = jwtTokenUtils.generateToken(user);
+
+        // Act
+        Long extractedUserId = jwtTokenUtils.getUserId(token);
+
+        // Assert
+        assertEquals(user.getId(), extractedUserId, "Extracted user id from the token should match user id");
+    }
+
+    @Test
+    void shouldReturnClaimsFromAuthentication_WhenTokenGeneratedFromAuthentication() {
+        // Arrange
+        Authentication authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+
+        // Act
+        String token = jwtTokenUtils.generateToken(authentication);
+
+        // Assert
+        assertEquals(user.getUsername(), jwtTokenUtils.getUsername(token), "Username should come from the authentication");
+        assertEquals(user.getId(), jwtTokenUtils.getUserId(token), "User id should come from the authenticated principal");
+        assertTrue(jwtTokenUtils.getRoles(token).contains("User"), "Roles should come from the granted authorities");
+    }
+
     @Test
     void tokenShouldContainUserRole() {
         // Arrange
@@ -102,6 +131,7 @@ class JwtTokenUtilsTest {
 
         // Assert
         assertTrue(claims.containsKey("roles"), "Claims should contain 'roles' key");
+        assertTrue(claims.containsKey("uid"), "Claims should contain 'uid' key (user id)");
         assertTrue(claims.containsKey("sub"), "Claims should contain 'sub' key (SUBJECT)");
         assertTrue(claims.containsKey("iat"), "Claims should contain 'iat' key (ISSUED_AT)");
         assertTrue(claims.containsKey("exp"), "Claims should contain 'exp' key (EXPIRATION)");
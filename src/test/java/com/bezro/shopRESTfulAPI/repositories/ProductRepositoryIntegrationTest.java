@@ -0,0 +1,92 @@
+package com.bezro.shopRESTfulAPI.repositories;
+
+import com.bezro.shopRESTfulAPI.dtos.ProductFilter;
+import com.bezro.shopRESTfulAPI.dtos.ProductSummary;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.bezro.shopRESTfulAPI.repositories.RecordingStatementInspector")
+@ActiveProfiles("test")
+class ProductRepositoryIntegrationTest {
+    private static final int PRODUCTS_COUNT = 5_000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private void insertProducts() {
+        List<Object[]> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS_COUNT; i++) {
+            products.add(new Object[]{"Product " + i, "Description " + i, i % 1000, i % 3});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (name, description, price, quantity) VALUES (?, ?, ?, ?)", products);
+        jdbcTemplate.execute("ANALYZE TABLE products");
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @DisplayName("Test filtered listing returns in stock products of the price range")
+    void shouldReturnInStockProductsOfPriceRange_WhenFindFilteredProducts() {
+        // Arrange
+        insertProducts();
+
+        // Act
+        Slice<ProductSummary> products = productRepository.findSliceProjectedBy(new ProductFilter(10.0, 20.0, true),
+                PageRequest.of(0, 1_000, Sort.by("price", "id")));
+
+        // Assert
+        //55 products cost from 10 to 20, 37 of them have a quantity not divisible by 3
+        assertEquals(37, products.getNumberOfElements(),
+                "Only in stock products of the price range should be returned");
+        assertTrue(products.stream().allMatch(product -> product.getPrice() >= 10 && product.getPrice() <= 20
+                && product.getQuantity() > 0), "Every product should match the filter");
+    }
+
+    // EXPLAIN runs the statement Hibernate generated for the listing query, with its parameters in placeholder order.
+    // The driver inlines them the same way it does for the listing, so MySQL plans the same statement
+    @Test
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @DisplayName("Test price range filter is read from the price index")
+    void shouldUsePriceIndex_WhenFilterByPriceRange() {
+        // Arrange
+        insertProducts();
+        RecordingStatementInspector.clear();
+        productRepository.findSliceProjectedBy(new ProductFilter(10.0, 20.0, true),
+                PageRequest.of(0, 20, Sort.by("price", "id")));
+        List<String> statements = RecordingStatementInspector.getStatements();
+        assertEquals(1, statements.size(), "The listing should run a single statement");
+        String sql = statements.get(0);
+        //minPrice and maxPrice are bound twice each, the slice reads one row more than its size
+        Object[] parameters = {10.0, 10.0, 20.0, 20.0, true, 21};
+        assertEquals(parameters.length, sql.chars().filter(c -> c == '?').count(),
+                "Every placeholder of the listing statement should get its parameter");
+
+        // Act
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, parameters);
+
+        // Assert
+        assertEquals(1, plan.size(), "Only the products table should be read");
+        assertEquals("idx_products_price_id", plan.get(0).get("key"), "Price range should use the price index");
+        assertEquals("range", plan.get(0).get("type"), "Only the price range should be read");
+    }
+}
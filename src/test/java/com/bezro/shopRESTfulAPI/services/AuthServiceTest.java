@@ -1,7 +1,6 @@
 package com.bezro.shopRESTfulAPI.services;
 
 import com.bezro.shopRESTfulAPI.dtos.JwtResponse;
-import com.bezro.shopRESTfulAPI.dtos.LoginUserDto;
 import com.bezro.shopRESTfulAPI.dtos.RegistrationUserDto;
 import com.bezro.shopRESTfulAPI.dtos.UserDto;
 import com.bezro.shopRESTfulAPI.entities.User;
@@ -15,14 +14,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.HashSet;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class AuthServiceTest {
@@ -40,18 +42,16 @@ class AuthServiceTest {
         // Arrange
         String jwtToken = "token";
         UserDetails userDetails = new org.springframework.security.core.userdetails.User("User", "Password", new HashSet<>());
-        LoginUserDto loginUserDto = new LoginUserDto();
-        loginUserDto.setUsername("User");
-        loginUserDto.setPassword("Password");
+        Authentication authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
-        when(userService.loadUserByUsername(eq("User"))).thenReturn(userDetails);
-        when(jwtTokenUtils.generateToken(eq(userDetails))).thenReturn(jwtToken);
+        when(jwtTokenUtils.generateToken(eq(authentication))).thenReturn(jwtToken);
 
         // Act
-        JwtResponse jwtResponse = authService.login(loginUserDto);
+        JwtResponse jwtResponse = authService.login(authentication);
 
         // Assert
         assertEquals(jwtResponse.getToken(), jwtToken);
+        verify(userService, never()).loadUserByUsername(any());
     }
 
     @Test
@@ -22,7 +22,7 @@ import java.util.Set;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceTest {
@@ -202,4 +202,22 @@ class UserServiceTest {
         assertEquals(user.getPassword(), userMock.getPassword(), "Passwords should match");
         assertSame(user.getRoles(), userMock.getRoles(), "Roles should have the same object reference");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldStoreNewHash_WhenUpdatePassword() {
+        // Arrange
+        User user = new User();
+        user.setUsername("User");
+        user.setPassword("oldHash");
+
+        when(userRepository.updatePassword(eq("User"), eq("newHash"))).thenReturn(1);
+
+        // Act
+        UserDetails updatedUser = userService.updatePassword(user, "newHash");
+
+        // Assert
+        assertSame(user, updatedUser, "Should be the same object reference");
+        assertEquals("newHash", updatedUser.getPassword(), "Password hash should be updated");
+        verify(userRepository, never()).save(any());
+    }
+}
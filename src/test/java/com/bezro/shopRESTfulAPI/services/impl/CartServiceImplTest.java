@@ -17,6 +17,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -82,19 +83,20 @@ class CartServiceImplTest {
 
 
         when(((User) mockUserDetails).getId()).thenReturn(1L);
-        when(userService.findByUsername(any())).thenReturn(mockUserDetails);
+        when(userService.getReferenceById(1L)).thenReturn((User) mockUserDetails);
         when(productService.findById(1L)).thenReturn(mockProduct);
         when(cartRepository.findByProduct_IdAndUser_Id(any(), any())).thenReturn(Optional.empty());
         when(cartRepository.save(any(CartItem.class))).thenReturn(cartItemMock);
 
         // Act
-        CartItemResponse cartItem = cartService.addCartItem(createCartItemDto, "User");
+        CartItemResponse cartItem = cartService.addCartItem(createCartItemDto, 1L);
 
         // Assert
         assertEquals(cartItem.getId(), cartItemMock.getId(), "Ids should match");
         assertSame(cartItem.getProduct(), cartItemMock.getProduct(), "Should be the same object reference");
         assertEquals(cartItem.getUserId(), cartItemMock.getUser().getId(), "User ID should match");
         assertEquals(cartItem.getQuantity(), cartItemMock.getQuantity(), "Quantity should match");
+        verify(userService, never()).findByUsername(any());
 
         Product product = cartItem.getProduct();
         assertEquals(product.getId(), mockProduct.getId(), "Ids should match");
@@ -112,15 +114,13 @@ class CartServiceImplTest {
         CartItem cartItemMock = cartItemMock(mockUserDetails, mockProduct);
 
 
-        when(((User) mockUserDetails).getId()).thenReturn(1L);
-        when(userService.findByUsername(any())).thenReturn(mockUserDetails);
         when(productService.findById(1L)).thenReturn(mockProduct);
         when(cartRepository.findByProduct_IdAndUser_Id(any(), any())).thenReturn(Optional.of(cartItemMock));
 
         // Act
         // Assert
         CartItemAlreadyExistsException exception = assertThrows(CartItemAlreadyExistsException.class,
-                () -> cartService.addCartItem(createCartItemDto(), "User"),
+                () -> cartService.addCartItem(createCartItemDto(), 1L),
                 "Adding to the cart already existing cart item should throw CartItemAlreadyExistsException.");
         assertEquals(exception.getMessage(), "Cart item already exists for the given product and user.", "Should have the same exception message");
     }
@@ -128,15 +128,10 @@ class CartServiceImplTest {
     @Test
     void shouldThrow400CodeStatus_whenAddNewCartItemInvalidUserInDto() {
         // Arrange
-        UserDetails mockUserDetails = mock(User.class);
-
-        when(((User) mockUserDetails).getId()).thenReturn(5L);
-        when(userService.findByUsername(any())).thenReturn(mockUserDetails);
-
         // Act
         // Assert
         InvalidMethodArgumentsException exception = assertThrows(InvalidMethodArgumentsException.class,
-                () -> cartService.addCartItem(createCartItemDto(), "Invalid user name"),
+                () -> cartService.addCartItem(createCartItemDto(), 5L),
                 "Adding to the cart with invalid user ID dto should throw InvalidMethodArgumentsException.");
         assertEquals(exception.getMessage(), "User id 1 does not match logged in user id", "Should have the same exception message");
     }
@@ -144,19 +139,30 @@ class CartServiceImplTest {
     @Test
     void shouldThrow400CodeStatus_whenAddNewCartItemInsufficientProductStock() {
         // Arrange
-        UserDetails mockUserDetails = mock(User.class);
         Product mockProduct = productMock();
         mockProduct.setQuantity(1.0);
 
-        when(((User) mockUserDetails).getId()).thenReturn(1L);
-        when(userService.findByUsername(any())).thenReturn(mockUserDetails);
         when(productService.findById(1L)).thenReturn(mockProduct);
 
         // Act
         // Assert
         InsufficientProductStockException exception = assertThrows(InsufficientProductStockException.class,
-                () -> cartService.addCartItem(createCartItemDto(), "Invalid user name"),
+                () -> cartService.addCartItem(createCartItemDto(), 1L),
                 "Adding to the cart a cart item with insufficient product stock should throw InsufficientProductStockException.");
         assertEquals(exception.getMessage(), "Product stock is not sufficient", "Should have the same exception message");
     }
+
+    @Test
+    void shouldDeleteAllCartItemsInOneStatement_whenClearCart() {
+        // Arrange
+        when(cartRepository.deleteAllByUserIdAndIdIn(1L, List.of(1L, 2L, 3L))).thenReturn(3);
+
+        // Act
+        cartService.clearCart(1L, List.of(1L, 2L, 3L));
+
+        // Assert
+        verify(cartRepository, times(1)).deleteAllByUserIdAndIdIn(1L, List.of(1L, 2L, 3L));
+        verify(cartRepository, never()).findById(any());
+        verify(cartRepository, never()).delete(any());
+    }
 }
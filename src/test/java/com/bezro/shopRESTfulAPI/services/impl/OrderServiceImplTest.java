@@ -10,6 +10,7 @@ import com.bezro.shopRESTfulAPI.repositories.OrderRepository;
 import com.bezro.shopRESTfulAPI.services.CartService;
 import com.bezro.shopRESTfulAPI.services.OrderItemService;
 import com.bezro.shopRESTfulAPI.services.ProductService;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,6 +22,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -43,6 +45,9 @@ class OrderServiceImplTest {
     @Mock
     private OrderItemService orderItemService;
 
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private OrderServiceImpl orderService;
 
@@ -158,43 +163,41 @@ class OrderServiceImplTest {
         OrderResponse expectedOrderResponse = getMockOrderResponse(mockInstant, mockOrderItems);
 
         when(((User) mockUserDetails).getId()).thenReturn(1L);
-        when(userService.findByUsername("User")).thenReturn(mockUserDetails);
+        when(userService.getReferenceById(1L)).thenReturn((User) mockUserDetails);
         when(cartService.getAllCartItems(1L)).thenReturn(mockCartItems);
         when(orderRepository.save(any())).thenReturn(mockOrder);
-        when(orderItemService.getAllOrderItems(any())).thenReturn(mockOrderItems);
-        doNothing().when(orderItemService).createOrderItem(any(), any());
-        doNothing().when(cartService).removeCartItem(any());
-        doNothing().when(productService).decreaseProductStock(200L, 7);
+        when(orderItemService.createOrderItems(any(), any())).thenReturn(mockOrderItems);
+        doNothing().when(cartService).clearCart(1L, List.of(20L));
+        when(productService.reserveStock(Map.of(200L, 7.0))).thenReturn(Map.of(200L, 0.0));
 
         //Act
-        OrderResponse response = orderService.createOrder("User");
+        OrderResponse response = orderService.createOrder(1L);
 
         //Assert
         assertOrderResponse(response, expectedOrderResponse);
         verify(cartService, times(1)).getAllCartItems(1L);
         verify(orderRepository, times(1)).save(any());
-        verify(orderItemService, atLeast(1)).createOrderItem(any(), any());
-        verify(cartService, atLeast(1)).removeCartItem(any());
-        verify(productService, atLeast(1)).decreaseProductStock(200L, 7);
-        verify(orderItemService, times(1)).getAllOrderItems(any());
+        verify(orderItemService, times(1)).createOrderItems(any(), any());
+        verify(cartService, times(1)).clearCart(1L, List.of(20L));
+        verify(cartService, never()).removeCartItem(any());
+        verify(productService, times(1)).reserveStock(Map.of(200L, 7.0));
+        verify(orderItemService, never()).getAllOrderItems(any());
+        assertEquals(0.0, mockCartItem.getProduct().getQuantity(), "Product stock should be decreased in memory");
     }
 
     @Test
     void shouldThrowEmptyCartException_whenCartIsEmpty() {
         // Arrange
-        UserDetails mockUserDetails = mock(User.class);
-
-        when(((User) mockUserDetails).getId()).thenReturn(1L);
-        when(userService.findByUsername(eq("User"))).thenReturn(mockUserDetails);
         when(cartService.getAllCartItems(1L)).thenReturn(new ArrayList<>());
 
         // Act
         // Assert
         EmptyCartException exception = assertThrows(EmptyCartException.class,
-                () -> orderService.createOrder("User"),
+                () -> orderService.createOrder(1L),
                 "When the user does not have any items in the cart, then throw EmptyCartException.");
         assertEquals(exception.getMessage(), "Cannot create order with an empty cart", "Should have the same exception message");
         verify(cartService, times(1)).getAllCartItems(1L);
+        verify(userService, never()).findByUsername(any());
     }
 
     @Test
@@ -256,43 +259,54 @@ class OrderServiceImplTest {
         OrderItem mockOrderItem2 = getMockOrderItem(11L, mockCartItems.get(1).getProduct());
         List<OrderItem> mockOrderItems = List.of(mockOrderItem1, mockOrderItem2);
 
+        User mockUser = new User();
+        mockUser.setId(1L);
+
         Order mockOrder = new Order();
+        mockOrder.setUser(mockUser);
         mockOrder.setOrderItems(mockOrderItems);
 
-        doNothing().when(orderItemService).createOrderItem(any(), any());
-        doNothing().when(cartService).removeCartItem(any());
-        doNothing().when(productService).decreaseProductStock(any(Long.class), any(Double.class));
+        when(orderItemService.createOrderItems(any(), any())).thenReturn(mockOrderItems);
+        doNothing().when(cartService).clearCart(1L, List.of(20L, 21L));
 
         //Act
-        orderService.convertCartItemsIntoOrderItems(mockCartItems, mockOrder);
+        List<OrderItem> orderItems = orderService.convertCartItemsIntoOrderItems(mockCartItems, mockOrder);
 
         //Assert
-        verify(orderItemService, times(mockCartItems.size())).createOrderItem(any(), any());
-        verify(cartService, times(mockCartItems.size())).removeCartItem(any());
-        verify(productService, times(mockCartItems.size())).decreaseProductStock(any(Long.class), any(Double.class));
+        assertSame(mockOrderItems, orderItems, "Should return the stored order items");
+        verify(orderItemService, times(1)).createOrderItems(mockCartItems, mockOrder);
+        verify(cartService, times(1)).clearCart(1L, List.of(20L, 21L));
+        verify(cartService, never()).removeCartItem(any());
+        verifyNoInteractions(productService);
     }
 
     @Test
-    void shouldReturnVoid_whenProductStockQuantityIsSufficient() {
+    void shouldReserveStockOncePerProduct_whenReserveProductStock() {
         //Arrange
-        CartItem mockCartItem = getMockCartItem(20L, 200L, null);
-        List<CartItem> mockCartItems = List.of(mockCartItem);
+        List<CartItem> mockCartItems = getMockCartItems();
 
-        //Act & Assert
-        assertDoesNotThrow(() -> orderService.validateProductStockQuantity(mockCartItems));
+        when(productService.reserveStock(any())).thenReturn(Map.of(200L, 0.0, 201L, 0.0));
+
+        //Act
+        orderService.reserveProductStock(mockCartItems);
+
+        //Assert
+        verify(productService, times(1)).reserveStock(Map.of(200L, 7.0, 201L, 7.0));
+        verifyNoMoreInteractions(productService);
+        mockCartItems.forEach(cartItem -> verify(entityManager, times(1)).detach(cartItem.getProduct()));
     }
 
     @Test
     void shouldThrowNotEnoughProductStockException_whenProductStockQuantityIsNotSufficient() {
         //Arrange
-        double largeQuantity = 777;
         List<CartItem> mockCartItems = getMockCartItems();
-        mockCartItems.get(0).setQuantity(largeQuantity);
-        mockCartItems.get(1).setQuantity(largeQuantity);
+        List<String> errors = List.of("Not enough product with id: 200", "Not enough product with id: 201");
+
+        doThrow(new NotEnoughProductStockException(errors)).when(productService).reserveStock(any());
 
         //Act & Assert
         NotEnoughProductStockException exception = assertThrows(NotEnoughProductStockException.class,
-                () -> orderService.validateProductStockQuantity(mockCartItems),
+                () -> orderService.reserveProductStock(mockCartItems),
                 "When product stock quantity is not sufficient, then throw NotEnoughProductStockException.");
         assertEquals(2, exception.getErrors().size(), "Should have the same count of error messages");
     }
@@ -311,11 +325,10 @@ class OrderServiceImplTest {
         List<Order> mockOrders = getMockOrders(mockUserDetails, mockInstant, mockOrderItems);
 
         when(((User) mockUserDetails).getId()).thenReturn(1L);
-        when(userService.findByUsername("User")).thenReturn(mockUserDetails);
         when(orderRepository.findAllByUser_Id(1L)).thenReturn(mockOrders);
 
         //Act
-        List<OrderResponse> response = orderService.getAllOrders("User");
+        List<OrderResponse> response = orderService.getAllOrders(1L);
 
         //Assert
         assertEquals(1, response.size(), "Should have the same size");
@@ -345,14 +358,10 @@ class OrderServiceImplTest {
     @Test
     void shouldReturnEmptyList_whenUserDoesNotHaveOrders() {
         // Arrange
-        UserDetails mockUserDetails = mock(User.class);
-
-        when(((User) mockUserDetails).getId()).thenReturn(1L);
-        when(userService.findByUsername(eq("User"))).thenReturn(mockUserDetails);
         when(orderRepository.findAllByUser_Id(eq(1L))).thenReturn(new ArrayList<>());
 
         // Act
-        List<OrderResponse> response = orderService.getAllOrders("User");
+        List<OrderResponse> response = orderService.getAllOrders(1L);
 
         //Assert
         assertTrue(response.isEmpty(), "Should return an empty list");
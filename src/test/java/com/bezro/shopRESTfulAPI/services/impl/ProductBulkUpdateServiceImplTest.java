@@ -0,0 +1,123 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import com.bezro.shopRESTfulAPI.dtos.ProductBulkUpdateDto;
+import com.bezro.shopRESTfulAPI.dtos.ProductBulkUpdateResponse;
+import com.bezro.shopRESTfulAPI.dtos.ProductBulkUpdateResult;
+import com.bezro.shopRESTfulAPI.entities.ProductUpdateStatus;
+import com.bezro.shopRESTfulAPI.exceptions.InvalidMethodArgumentsException;
+import com.bezro.shopRESTfulAPI.repositories.ProductRepository;
+import com.bezro.shopRESTfulAPI.services.ProductSearchService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductBulkUpdateServiceImplTest {
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private ProductCacheInvalidator productCacheInvalidator;
+
+    private ProductBulkUpdateServiceImpl productBulkUpdateService;
+
+    @BeforeEach
+    void setUp() {
+        productBulkUpdateService = new ProductBulkUpdateServiceImpl(productRepository, jdbcTemplate, transactionManager,
+                entityManager, productSearchService, productCacheInvalidator, 2);
+    }
+
+    private ProductBulkUpdateDto update(Long id, Double price, Double quantityDelta) {
+        ProductBulkUpdateDto update = new ProductBulkUpdateDto();
+        update.setId(id);
+        update.setPrice(price);
+        update.setQuantityDelta(quantityDelta);
+        return update;
+    }
+
+    @Test
+    void shouldReportEveryUpdateAndInvalidateCachesOnce_whenUpdateProductsInChunks() {
+        // Arrange
+        List<ProductBulkUpdateDto> updates = List.of(
+                update(1L, 9.5, null),
+                update(2L, null, -10.0),
+                update(3L, null, null),
+                update(99L, null, 1.0),
+                update(4L, null, 5.0));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenReturn(new int[]{1, 0})
+                .thenReturn(new int[]{0, 1});
+        when(productRepository.findExistingIds(List.of(2L))).thenReturn(List.of(2L));
+        when(productRepository.findExistingIds(List.of(99L))).thenReturn(List.of());
+
+        // Act
+        ProductBulkUpdateResponse response = productBulkUpdateService.updateProducts(updates);
+
+        // Assert
+        assertEquals(2, response.getUpdatedCount());
+        assertEquals(3, response.getFailedCount());
+        assertEquals(List.of(ProductUpdateStatus.UPDATED, ProductUpdateStatus.INSUFFICIENT_STOCK, ProductUpdateStatus.INVALID,
+                        ProductUpdateStatus.NOT_FOUND, ProductUpdateStatus.UPDATED),
+                response.getResults().stream().map(ProductBulkUpdateResult::getStatus).toList(),
+                "Results should follow the request order");
+        assertEquals("The price or the quantity delta is required.", response.getResults().get(2).getMessage());
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        verify(productRepository).findAllById(List.of(1L));
+        verify(productSearchService, times(1)).indexAll(anyList());
+        verify(productCacheInvalidator, times(1)).evictAfterCommit(Set.of(1L, 4L));
+    }
+
+    @Test
+    void shouldNotInvalidateCaches_whenNoProductIsUpdated() {
+        // Arrange
+        List<ProductBulkUpdateDto> updates = List.of(update(1L, -1.0, null));
+
+        // Act
+        ProductBulkUpdateResponse response = productBulkUpdateService.updateProducts(updates);
+
+        // Assert
+        assertEquals(ProductUpdateStatus.INVALID, response.getResults().get(0).getStatus());
+        assertEquals("Price must be greater than zero", response.getResults().get(0).getMessage());
+        verifyNoInteractions(jdbcTemplate, productCacheInvalidator);
+    }
+
+    @Test
+    void shouldThrowInvalidMethodArgumentsException_whenTooManyUpdates() {
+        // Arrange
+        List<ProductBulkUpdateDto> updates = new ArrayList<>(Collections.nCopies(10_001, update(1L, 1.0, null)));
+
+        // Act
+        // Assert
+        InvalidMethodArgumentsException exception = assertThrows(InvalidMethodArgumentsException.class,
+                () -> productBulkUpdateService.updateProducts(updates));
+        assertEquals("At most 10000 products can be updated at once", exception.getMessage());
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,83 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import com.bezro.shopRESTfulAPI.constants.CacheNames;
+import com.bezro.shopRESTfulAPI.entities.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheInvalidatorTest {
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private ProductCatalogVersion productCatalogVersion;
+
+    @InjectMocks
+    private ProductCacheInvalidator productCacheInvalidator;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldEvictCachesBeforeChangingVersion_whenNoTransaction() {
+        // Arrange
+        Cache productsCache = mock(Cache.class);
+        Cache productFacetsCache = mock(Cache.class);
+        jakarta.persistence.Cache entityCache = mock(jakarta.persistence.Cache.class);
+        when(entityManagerFactory.getCache()).thenReturn(entityCache);
+        when(cacheManager.getCache(CacheNames.PRODUCTS)).thenReturn(productsCache);
+        when(cacheManager.getCache(CacheNames.PRODUCT_FACETS)).thenReturn(productFacetsCache);
+
+        // Act
+        productCacheInvalidator.evictAfterCommit(List.of(1L, 2L));
+
+        // Assert
+        verify(productsCache, times(1)).evict(1L);
+        verify(productsCache, times(1)).evict(2L);
+        verify(entityCache, times(1)).evict(Product.class, 1L);
+        verify(entityCache, times(1)).evict(Product.class, 2L);
+        InOrder inOrder = inOrder(entityCache, productFacetsCache, productCatalogVersion);
+        inOrder.verify(entityCache, times(1)).evict(Product.class, 2L);
+        inOrder.verify(productFacetsCache, times(1)).clear();
+        inOrder.verify(productCatalogVersion, times(1)).increment();
+    }
+
+    @Test
+    void shouldEvictAfterCommit_whenTransactionIsActive() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        jakarta.persistence.Cache entityCache = mock(jakarta.persistence.Cache.class);
+
+        // Act
+        productCacheInvalidator.evictAfterCommit(List.of(1L));
+
+        // Assert
+        verifyNoInteractions(cacheManager, entityManagerFactory, productCatalogVersion);
+        when(entityManagerFactory.getCache()).thenReturn(entityCache);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(entityCache, times(1)).evict(Product.class, 1L);
+        verify(productCatalogVersion, times(1)).increment();
+    }
+}
@@ -0,0 +1,76 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import com.bezro.shopRESTfulAPI.repositories.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCountTrackerTest {
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private ProductCountTracker productCountTracker;
+
+    @Test
+    void shouldCountOnce_whenGetEstimatedCount() {
+        // Arrange
+        when(productRepository.count()).thenReturn(3L);
+
+        // Act
+        long firstCount = productCountTracker.getEstimatedCount();
+        long secondCount = productCountTracker.getEstimatedCount();
+
+        // Assert
+        assertEquals(3L, firstCount, "First call should count the products");
+        assertEquals(3L, secondCount, "Second call should use the counted value");
+        verify(productRepository, times(1)).count();
+    }
+
+    @Test
+    void shouldFollowWrites_whenProductsAreAddedAndDeleted() {
+        // Arrange
+        productCountTracker.update(10L);
+
+        // Act
+        productCountTracker.increment();
+        productCountTracker.increment();
+        productCountTracker.decrement();
+
+        // Assert
+        assertEquals(11L, productCountTracker.getEstimatedCount(), "Estimate should follow the writes");
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void shouldIgnoreWrites_whenNotCountedYet() {
+        // Arrange
+        productCountTracker.increment();
+        when(productRepository.count()).thenReturn(3L);
+
+        // Act
+        long count = productCountTracker.getEstimatedCount();
+
+        // Assert
+        assertEquals(3L, count, "Writes before the first count should not change the counted value");
+    }
+
+    @Test
+    void shouldCorrectDrift_whenRefreshed() {
+        // Arrange
+        productCountTracker.update(10L);
+        when(productRepository.count()).thenReturn(8L);
+
+        // Act
+        productCountTracker.refresh();
+
+        // Assert
+        assertEquals(8L, productCountTracker.getEstimatedCount(), "Refresh should replace the estimate with the exact count");
+    }
+}
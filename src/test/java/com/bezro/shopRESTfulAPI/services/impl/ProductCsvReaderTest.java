@@ -0,0 +1,46 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ProductCsvReaderTest {
+
+    @Test
+    void shouldReadRecords_whenFieldsArePlain() throws Exception {
+        // Arrange
+        ProductCsvReader reader = new ProductCsvReader(new StringReader("name,price\r\nProduct 1,5.0\r\n"));
+
+        // Act
+        List<String> header = reader.readRecord();
+        List<String> record = reader.readRecord();
+
+        // Assert
+        assertEquals(List.of("name", "price"), header);
+        assertEquals(List.of("Product 1", "5.0"), record);
+        assertEquals(2, reader.getRecordLineNumber(), "Record should start on the second line");
+        assertNull(reader.readRecord(), "Should return null at the end of the input");
+    }
+
+    @Test
+    void shouldReadQuotedFields_whenTheyContainSeparatorsQuotesAndLineBreaks() throws Exception {
+        // Arrange
+        ProductCsvReader reader = new ProductCsvReader(new StringReader(
+                "\"Red, shoes\",\"The \"\"best\"\"\nshoes\",\n"
+                        + "Product 2,,5.0"));
+
+        // Act
+        List<String> first = reader.readRecord();
+        List<String> second = reader.readRecord();
+
+        // Assert
+        assertEquals(List.of("Red, shoes", "The \"best\"\nshoes", ""), first);
+        assertEquals(List.of("Product 2", "", "5.0"), second);
+        assertEquals(3, reader.getRecordLineNumber(), "Line break inside a quoted field should be counted");
+        assertNull(reader.readRecord(), "Should return null at the end of the input");
+    }
+}
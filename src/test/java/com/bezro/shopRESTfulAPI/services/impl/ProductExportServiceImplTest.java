@@ -0,0 +1,97 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import com.bezro.shopRESTfulAPI.entities.Product;
+import com.bezro.shopRESTfulAPI.entities.ProductFileFormat;
+import com.bezro.shopRESTfulAPI.exceptions.InvalidMethodArgumentsException;
+import com.bezro.shopRESTfulAPI.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductExportServiceImplTest {
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private ProductExportServiceImpl productExportService;
+
+    private Product product(Long id, String name, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(2.5d);
+        product.setQuantity(10.0d);
+        return product;
+    }
+
+    @Test
+    void shouldWriteProductPerLineAndDetachIt_whenExportAsNdjson() throws Exception {
+        // Arrange
+        Product firstProduct = product(1L, "Product 1", "Description 1");
+        Product secondProduct = product(2L, "Product 2", "Description 2");
+        AtomicBoolean streamClosed = new AtomicBoolean();
+        when(productRepository.streamAllBy())
+                .thenReturn(Stream.of(firstProduct, secondProduct).onClose(() -> streamClosed.set(true)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        long exportedCount = productExportService.exportProducts(ProductFileFormat.NDJSON, outputStream);
+
+        // Assert
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2L, exportedCount, "Should export every product");
+        assertEquals(2, lines.length, "Should write one line per product");
+        assertEquals(firstProduct, objectMapper.readValue(lines[0], Product.class), "Line should be the product JSON");
+        assertEquals(secondProduct, objectMapper.readValue(lines[1], Product.class), "Line should be the product JSON");
+        verify(entityManager, times(1)).detach(firstProduct);
+        verify(entityManager, times(1)).detach(secondProduct);
+        assertTrue(streamClosed.get(), "Product stream should be closed");
+    }
+
+    @Test
+    void shouldQuoteFields_whenExportAsCsv() throws Exception {
+        // Arrange
+        when(productRepository.streamAllBy())
+                .thenReturn(Stream.of(product(1L, "Product, \"large\"", null)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        productExportService.exportProducts(ProductFileFormat.CSV, outputStream);
+
+        // Assert
+        assertEquals("id,name,description,price,quantity\n1,\"Product, \"\"large\"\"\",,2.5,10.0\n",
+                outputStream.toString(StandardCharsets.UTF_8), "Should write the header and a quoted line");
+    }
+
+    @Test
+    void shouldThrowInvalidRequestParameters_whenExportFormatIsNotSupported() {
+        // Arrange
+        // Act
+        // Assert
+        InvalidMethodArgumentsException exception = assertThrows(InvalidMethodArgumentsException.class,
+                () -> ProductFileFormat.fromString("xml"),
+                "Not supported format should throw InvalidMethodArgumentsException.");
+        assertEquals("Not supported product file format: xml", exception.getMessage(), "Should have the same exception message");
+    }
+}
@@ -0,0 +1,144 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import com.bezro.shopRESTfulAPI.dtos.ProductFilter;
+import com.bezro.shopRESTfulAPI.dtos.ProductPageResponse;
+import com.bezro.shopRESTfulAPI.entities.Product;
+import com.bezro.shopRESTfulAPI.repositories.ProductRepository;
+import com.bezro.shopRESTfulAPI.services.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@Slf4j
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ProductListingAllocationIntegrationTest {
+    private static final int PRODUCTS_COUNT = 500;
+    private static final int PAGE_SIZE = 50;
+    private static final int WARMUP_REQUESTS_COUNT = 200;
+    private static final int MEASURED_REQUESTS_COUNT = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductPageResponseCache productPageResponseCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private void saveProducts() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS_COUNT; i++) {
+            Product product = new Product();
+            product.setName("Listed product " + i);
+            product.setDescription("Description " + i + " " + "x".repeat(2000));
+            product.setPrice(i);
+            product.setQuantity(i);
+            products.add(product);
+        }
+        productRepository.saveAll(products);
+    }
+
+    private long averageAllocatedBytes(Supplier<?> pageRequest) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_REQUESTS_COUNT; i++) {
+            pageRequest.get();
+        }
+        long start = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_REQUESTS_COUNT; i++) {
+            pageRequest.get();
+        }
+        return (threadMXBean.getThreadAllocatedBytes(threadId) - start) / MEASURED_REQUESTS_COUNT;
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @DisplayName("Test listing projections allocate less per page than listing entities")
+    void shouldAllocateLessPerPage_WhenListingProductSummaries() {
+        // Arrange
+        saveProducts();
+
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        Pageable pageable = PageRequest.of(2, PAGE_SIZE, Sort.by("name", "id"));
+
+        // Act
+        long entityBytes = averageAllocatedBytes(() -> readOnlyTransaction.execute(
+                status -> productRepository.findAllBy(ProductFilter.none(), pageable).getContent()));
+        long projectionBytes = averageAllocatedBytes(() -> readOnlyTransaction.execute(
+                status -> productRepository.findSliceProjectedBy(ProductFilter.none(), pageable).getContent()));
+
+        // Assert
+        log.info("Heap allocated per page of {} products over {} requests: {} KB with entities, {} KB with projections",
+                PAGE_SIZE, MEASURED_REQUESTS_COUNT, entityBytes / 1024.0, projectionBytes / 1024.0);
+        assertTrue(projectionBytes < entityBytes, "Projection page should allocate less than the entity page");
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @DisplayName("Test cached encoded pages allocate less per request than encoding the page every time")
+    void shouldAllocateLessPerRequest_WhenServingCachedPageBytes() {
+        // Arrange
+        saveProducts();
+        ProductPageResponseCache encodingEveryTime =
+                new ProductPageResponseCache(false, 100, false, 60_000, objectMapper, new SimpleMeterRegistry());
+        Supplier<ProductPageResponse> page =
+                () -> productService.getProductsPagination(2, PAGE_SIZE, "name", false, ProductFilter.none());
+        String catalogVersion = productService.getCatalogVersion();
+
+        // Act
+        long encodedBytes = averageAllocatedBytes(() -> encodingEveryTime.get(catalogVersion, "page", page));
+        long cachedBytes = averageAllocatedBytes(() -> productPageResponseCache.get(catalogVersion, "page", page));
+        long requestBytes = averageAllocatedBytes(() -> {
+            try {
+                return mockMvc.perform(get("/api/v1/products?pageNumber=2&pageSize=" + PAGE_SIZE + "&sort=name"))
+                        .andReturn();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Assert
+        log.info("Heap allocated per page of {} products over {} requests: {} KB encoded every time, {} KB cached, "
+                        + "{} KB per whole MockMvc request with the cache",
+                PAGE_SIZE, MEASURED_REQUESTS_COUNT, encodedBytes / 1024.0, cachedBytes / 1024.0, requestBytes / 1024.0);
+        assertTrue(cachedBytes < encodedBytes, "Cached page bytes should allocate less than encoding the page");
+    }
+}
@@ -0,0 +1,107 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import com.bezro.shopRESTfulAPI.Benchmark;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class ProductNameSuggestionsTest {
+    private static final int PRODUCTS_COUNT = 1_000_000;
+    private static final int LOOKUPS_COUNT = 100_000;
+    private static final String[] WORDS = {"red", "blue", "green", "cotton", "wool", "shirt", "jacket", "shoes", "summer", "winter"};
+
+    @Test
+    void shouldSuggestNamesStartingWithPrefixIgnoringCase() {
+        // Arrange
+        ProductNameSuggestions suggestions = ProductNameSuggestions.of(Map.of(
+                1L, "Red shirt",
+                2L, "red Jacket",
+                3L, "Blue shirt",
+                4L, "Red shoes"));
+
+        // Act
+        List<String> result = suggestions.suggest("RED S", 10);
+
+        // Assert
+        assertEquals(List.of("Red shirt", "Red shoes"), result, "Names starting with the prefix should be suggested in order");
+        assertEquals(List.of("red Jacket", "Red shirt"), suggestions.suggest("re", 2), "Suggestions should be limited");
+        assertTrue(suggestions.suggest("green", 10).isEmpty(), "Unknown prefix should have no suggestions");
+    }
+
+    @Test
+    void shouldSuggestSameNameOnce() {
+        // Arrange
+        ProductNameSuggestions suggestions = ProductNameSuggestions.of(Map.of(1L, "Red shirt", 2L, "Red shirt", 3L, "red shirt"));
+
+        // Act
+        // Assert
+        assertEquals(List.of("Red shirt"), suggestions.suggest("red", 10), "Same names should be suggested once");
+    }
+
+    @Test
+    void shouldReturnChangedCopy_whenAddAndRemoveName() {
+        // Arrange
+        ProductNameSuggestions suggestions = ProductNameSuggestions.of(Map.of(1L, "Red shirt"));
+
+        // Act
+        ProductNameSuggestions withJacket = suggestions.with(2L, "Red jacket");
+        ProductNameSuggestions withoutShirt = withJacket.without(1L, "Red shirt");
+
+        // Assert
+        assertEquals(List.of("Red shirt"), suggestions.suggest("red", 10), "Original suggestions should not change");
+        assertEquals(List.of("Red jacket", "Red shirt"), withJacket.suggest("red", 10), "Added name should be suggested");
+        assertEquals(List.of("Red jacket"), withoutShirt.suggest("red", 10), "Removed name should not be suggested");
+        assertSame(withoutShirt, withoutShirt.without(5L, "Unknown"), "Removing an unknown name should not copy");
+        assertSame(withoutShirt, withoutShirt.with(2L, "Red jacket"), "Adding an existing name should not copy");
+    }
+
+    @Test
+    void shouldMergeBatchOfChanges_whenWithChanges() {
+        // Arrange
+        ProductNameSuggestions suggestions = ProductNameSuggestions.of(Map.of(1L, "Red shirt", 2L, "Blue shirt", 3L, "Red shoes"));
+
+        // Act
+        ProductNameSuggestions changed = suggestions.withChanges(
+                Map.of(1L, "Red shirt", 2L, "Blue shirt"),
+                Map.of(1L, "Green shirt", 3L, "Red shoes", 4L, "Red jacket", 5L, "blue jeans"));
+
+        // Assert
+        assertEquals(List.of("Red jacket", "Red shoes"), changed.suggest("red", 10), "Renamed name should be removed once");
+        assertEquals(List.of("Green shirt"), changed.suggest("green", 10), "Renamed product should be suggested by its new name");
+        assertEquals(List.of("blue jeans"), changed.suggest("blue", 10), "Removed name should not be suggested");
+        assertEquals(4, changed.size(), "Added existing name should not be duplicated");
+        assertEquals(3, suggestions.size(), "Original suggestions should not change");
+        assertSame(suggestions, suggestions.withChanges(Map.of(), Map.of()), "Empty batch should not copy");
+    }
+
+    @Benchmark
+    void shouldMeasureSuggestLatencyOverMillionNames() {
+        // Arrange
+        Map<Long, String> namesById = new HashMap<>();
+        for (long id = 1; id <= PRODUCTS_COUNT; id++) {
+            namesById.put(id, WORDS[(int) (id % WORDS.length)] + " " + WORDS[(int) ((id / WORDS.length) % WORDS.length)] + " " + id);
+        }
+        ProductNameSuggestions suggestions = ProductNameSuggestions.of(namesById);
+        for (int i = 0; i < LOOKUPS_COUNT; i++) {
+            suggestions.suggest(WORDS[i % WORDS.length] + " " + WORDS[(i / 3) % WORDS.length].charAt(0), 10);
+        }
+
+        // Act
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS_COUNT; i++) {
+            suggestions.suggest(WORDS[i % WORDS.length] + " " + WORDS[(i / 3) % WORDS.length].charAt(0), 10);
+        }
+        long averageNanos = (System.nanoTime() - start) / LOOKUPS_COUNT;
+
+        // Assert
+        log.info("Name suggestions over {} products: {} µs per lookup", suggestions.size(), averageNanos / 1_000.0);
+        assertEquals(PRODUCTS_COUNT, suggestions.size(), "Every name should be indexed");
+        assertEquals(10, suggestions.suggest("red b", 10).size(), "Lookup should fill the limit");
+    }
+}
@@ -0,0 +1,95 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import com.bezro.shopRESTfulAPI.exceptions.NoContentException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductPageResponseCacheTest {
+    private final ProductPageResponseCache productPageResponseCache =
+            new ProductPageResponseCache(true, 100, true, 60_000, new ObjectMapper(), new SimpleMeterRegistry());
+
+    private final AtomicInteger loadsCount = new AtomicInteger();
+
+    private final Supplier<Object> loader = () -> {
+        loadsCount.incrementAndGet();
+        return Map.of("name", "Product 1");
+    };
+
+    @Test
+    void shouldEncodeOnce_whenGetSamePageAgain() {
+        // Act
+        ProductPageResponseCache.EncodedResponse firstResponse = productPageResponseCache.get("v1", "0|5", loader);
+        ProductPageResponseCache.EncodedResponse secondResponse = productPageResponseCache.get("v1", "0|5", loader);
+
+        // Assert
+        assertEquals("{\"name\":\"Product 1\"}", new String(firstResponse.getBody(), StandardCharsets.UTF_8),
+                "Body should be the encoded page");
+        assertSame(firstResponse, secondResponse, "Second read should return the cached bytes");
+        assertEquals(1, loadsCount.get(), "Page should be loaded once");
+    }
+
+    @Test
+    void shouldLoadAgain_whenCatalogVersionChanges() {
+        // Arrange
+        productPageResponseCache.get("v1", "0|5", loader);
+
+        // Act
+        productPageResponseCache.get("v2", "0|5", loader);
+
+        // Assert
+        assertEquals(2, loadsCount.get(), "Page of the new version should be loaded again");
+        assertEquals(1, productPageResponseCache.size(), "Pages of the old version should be dropped");
+    }
+
+    @Test
+    void shouldStoreGzippedBody_whenGzipIsEnabled() throws Exception {
+        // Act
+        ProductPageResponseCache.EncodedResponse response = productPageResponseCache.get("v1", "0|5", loader);
+
+        // Assert
+        try (GZIPInputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(response.getGzippedBody()))) {
+            assertArrayEquals(response.getBody(), gzipStream.readAllBytes(), "Gzipped body should decompress to the body");
+        }
+    }
+
+    @Test
+    void shouldNotCache_whenLoaderThrows() {
+        // Arrange
+        Supplier<Object> emptyPage = () -> {
+            loadsCount.incrementAndGet();
+            throw new NoContentException("No Content");
+        };
+
+        // Act
+        // Assert
+        assertThrows(NoContentException.class, () -> productPageResponseCache.get("v1", "10|5", emptyPage));
+        assertThrows(NoContentException.class, () -> productPageResponseCache.get("v1", "10|5", emptyPage));
+        assertEquals(2, loadsCount.get(), "Failed load should not be cached");
+    }
+
+    @Test
+    void shouldEncodeEveryTime_whenDisabled() {
+        // Arrange
+        ProductPageResponseCache disabledCache =
+                new ProductPageResponseCache(false, 100, true, 60_000, new ObjectMapper(), new SimpleMeterRegistry());
+
+        // Act
+        ProductPageResponseCache.EncodedResponse response = disabledCache.get("v1", "0|5", loader);
+        disabledCache.get("v1", "0|5", loader);
+
+        // Assert
+        assertEquals(2, loadsCount.get(), "Disabled cache should load every time");
+        assertNull(response.getGzippedBody(), "Disabled cache should not gzip");
+        assertFalse(disabledCache.isGzipEnabled(), "Disabled cache should not offer gzip");
+    }
+}
@@ -0,0 +1,95 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import com.bezro.shopRESTfulAPI.Benchmark;
+import com.bezro.shopRESTfulAPI.dtos.ProductSearchResult;
+import com.bezro.shopRESTfulAPI.entities.Product;
+import com.bezro.shopRESTfulAPI.services.ProductSearchService;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductSearchBenchmarkIntegrationTest {
+    //Run with -Dbenchmark=true, add -Dbenchmark.products.count=1000000 for the full catalog size
+    private static final int PRODUCTS_COUNT = Integer.getInteger("benchmark.products.count", 20_000);
+    private static final int INSERT_BATCH_SIZE = 5_000;
+    private static final int SEARCHES_COUNT = 50;
+    private static final String[] WORDS = {"red", "blue", "green", "cotton", "wool", "shirt", "jacket", "shoes", "summer", "winter"};
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private void insertProducts() {
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS_COUNT; i++) {
+            String name = WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " " + i;
+            String description = "Product " + i + " made of " + WORDS[(i / 7) % WORDS.length];
+            batch.add(new Object[]{name, description, i % 100, i % 10});
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate("INSERT INTO products (name, description, price, quantity) VALUES (?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO products (name, description, price, quantity) VALUES (?, ?, ?, ?)", batch);
+        }
+    }
+
+    private List<Product> searchWithLike(String word) {
+        return entityManager.createQuery(
+                        "SELECT p FROM Product p WHERE LOWER(p.name) LIKE :pattern OR LOWER(p.description) LIKE :pattern",
+                        Product.class)
+                .setParameter("pattern", "%" + word + "%")
+                .setMaxResults(20)
+                .getResultList();
+    }
+
+    private double averageMillis(Supplier<List<?>> search) {
+        long start = System.nanoTime();
+        for (int i = 0; i < SEARCHES_COUNT; i++) {
+            search.get();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / SEARCHES_COUNT;
+    }
+
+    @Benchmark
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @DisplayName("Test inverted index search against a LIKE query baseline")
+    void shouldMeasureIndexSearchAgainstLikeQuery() {
+        // Arrange
+        insertProducts();
+        long buildStart = System.nanoTime();
+        List<ProductSearchResult> warmupResults = productSearchService.search("jacket", 20);
+        double buildMillis = (System.nanoTime() - buildStart) / 1_000_000.0;
+
+        // Act
+        double likeMillis = averageMillis(() -> searchWithLike("jacket"));
+        double indexMillis = averageMillis(() -> productSearchService.search("jacket", 20));
+
+        // Assert
+        log.info("Search over {} products: index built in {} ms, LIKE query {} ms, inverted index {} ms per search",
+                PRODUCTS_COUNT, buildMillis, likeMillis, indexMillis);
+        assertEquals(20, warmupResults.size(), "Index search should return a full page of results");
+    }
+}
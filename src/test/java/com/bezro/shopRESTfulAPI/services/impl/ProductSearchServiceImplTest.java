@@ -0,0 +1,262 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import com.bezro.shopRESTfulAPI.dtos.ProductSearchResult;
+import com.bezro.shopRESTfulAPI.entities.Product;
+import com.bezro.shopRESTfulAPI.exceptions.InvalidMethodArgumentsException;
+import com.bezro.shopRESTfulAPI.repositories.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchServiceImplTest {
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductSearchServiceImpl productSearchService;
+
+    @BeforeEach
+    void setUp() {
+        productSearchService = new ProductSearchServiceImpl(productRepository, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Product product(Long id, String name, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(id * 10.0);
+        product.setQuantity(1.0);
+        return product;
+    }
+
+    private void givenProducts(Product... products) {
+        when(productRepository.findAllAfterId(eq(0L), any(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(products)));
+    }
+
+    @Test
+    void shouldRankNameMatchesFirst_whenSearch() {
+        // Arrange
+        givenProducts(
+                product(1L, "Blue shirt", "Cotton shirt with red buttons"),
+                product(2L, "Red shirt", "Cotton shirt"),
+                product(3L, "Green trousers", "Red stripes"));
+
+        // Act
+        List<ProductSearchResult> results = productSearchService.search("RED shirt", 10);
+
+        // Assert
+        assertEquals(List.of(2L, 1L), results.stream().map(ProductSearchResult::getId).toList(),
+                "Products with all words should be ranked by relevance");
+        assertEquals("Red shirt", results.get(0).getName(), "Result should have the product name");
+        assertEquals(20.0, results.get(0).getPrice(), "Result should have the product price");
+        assertTrue(results.get(0).getScore() > results.get(1).getScore(), "Name match should score higher");
+    }
+
+    @Test
+    void shouldReturnEmptyList_whenWordIsNotIndexed() {
+        // Arrange
+        givenProducts(product(1L, "Blue shirt", "Cotton"));
+
+        // Act
+        // Assert
+        assertTrue(productSearchService.search("blue jeans", 10).isEmpty(), "All words should be matched");
+    }
+
+    @Test
+    void shouldLimitResults_whenSearch() {
+        // Arrange
+        givenProducts(
+                product(1L, "Shirt 1", null),
+                product(2L, "Shirt 2", null),
+                product(3L, "Shirt 3", null));
+
+        // Act
+        List<ProductSearchResult> results = productSearchService.search("shirt", 2);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), results.stream().map(ProductSearchResult::getId).toList(),
+                "Equal scores should be ordered by name");
+    }
+
+    @Test
+    void shouldBuildIndexOnce_whenSearchTwice() {
+        // Arrange
+        givenProducts(product(1L, "Blue shirt", "Cotton"));
+
+        // Act
+        productSearchService.search("shirt", 10);
+        productSearchService.search("cotton", 10);
+
+        // Assert
+        verify(productRepository, times(1)).findAllAfterId(any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void shouldFindUpdatedProduct_whenIndexAfterBuild() {
+        // Arrange
+        givenProducts(product(1L, "Blue shirt", "Cotton"));
+        productSearchService.search("shirt", 10);
+
+        // Act
+        productSearchService.index(product(1L, "Blue jacket", "Wool"));
+        productSearchService.index(product(2L, "Green shirt", "Cotton"));
+
+        // Assert
+        assertTrue(productSearchService.search("cotton blue", 10).isEmpty(), "Old words of the updated product should be removed");
+        assertEquals(List.of(1L), productSearchService.search("wool", 10).stream().map(ProductSearchResult::getId).toList(),
+                "New words of the updated product should be indexed");
+        assertEquals(List.of(2L), productSearchService.search("shirt", 10).stream().map(ProductSearchResult::getId).toList(),
+                "Added product should be indexed");
+    }
+
+    @Test
+    void shouldApplyWritesAfterCommit_whenTransactionIsActive() {
+        // Arrange
+        givenProducts(product(1L, "Blue shirt", "Cotton"), product(2L, "Red shirt", "Cotton"));
+        productSearchService.search("shirt", 10);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        productSearchService.index(product(1L, "Blue jacket", "Wool"));
+        productSearchService.remove(2L);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), productSearchService.search("shirt", 10).stream().map(ProductSearchResult::getId).toList(),
+                "Writes should not be searchable before the commit");
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertTrue(productSearchService.search("shirt", 10).isEmpty(), "Writes should be applied after the commit");
+        assertEquals(List.of(1L), productSearchService.search("wool", 10).stream().map(ProductSearchResult::getId).toList(),
+                "Updated product should be indexed after the commit");
+    }
+
+    @Test
+    void shouldNotFindProduct_whenRemoved() {
+        // Arrange
+        givenProducts(product(1L, "Blue shirt", "Cotton"), product(2L, "Red shirt", "Cotton"));
+        productSearchService.search("shirt", 10);
+
+        // Act
+        productSearchService.remove(1L);
+
+        // Assert
+        assertEquals(List.of(2L), productSearchService.search("shirt", 10).stream().map(ProductSearchResult::getId).toList(),
+                "Removed product should not be found");
+        assertTrue(productSearchService.search("blue", 10).isEmpty(), "Words of the removed product should be removed");
+    }
+
+    @Test
+    void shouldIndexEveryProduct_whenIndexAll() {
+        // Arrange
+        givenProducts(product(1L, "Red shirt", "Cotton"), product(2L, "Blue shirt", "Cotton"));
+        productSearchService.search("shirt", 10);
+
+        // Act
+        productSearchService.indexAll(List.of(
+                product(1L, "Red jacket", "Wool"),
+                product(3L, "Green shirt", "Cotton"),
+                product(1L, "Red coat", "Wool")));
+
+        // Assert
+        assertEquals(List.of(2L, 3L), productSearchService.search("shirt", 10).stream().map(ProductSearchResult::getId).toList(),
+                "Batch products should be indexed");
+        assertEquals(List.of("Red coat"), productSearchService.suggest("red", 10),
+                "Product written twice in a batch should be suggested by its last name");
+        assertEquals(List.of("Green shirt"), productSearchService.suggest("green", 10), "Added product should be suggested");
+    }
+
+    @Test
+    void shouldSkipWrites_whenIndexIsNotBuilt() {
+        // Arrange
+        // Act
+        productSearchService.index(product(1L, "Blue shirt", "Cotton"));
+        productSearchService.remove(2L);
+
+        // Assert
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void shouldReplayWrites_whenMadeDuringBuild() {
+        // Arrange
+        when(productRepository.findAllAfterId(eq(0L), any(), any(Pageable.class))).thenAnswer(invocation -> {
+            //The scan has read the products before these writes commit
+            productSearchService.index(product(2L, "Green shirt", "Cotton"));
+            productSearchService.remove(1L);
+            return new SliceImpl<>(List.of(product(1L, "Blue shirt", "Cotton")));
+        });
+
+        // Act
+        List<ProductSearchResult> results = productSearchService.search("shirt", 10);
+
+        // Assert
+        assertEquals(List.of(2L), results.stream().map(ProductSearchResult::getId).toList(),
+                "Writes made during the build should be applied to the built index");
+        assertTrue(productSearchService.suggest("blue", 10).isEmpty(), "Product removed during the build should not be suggested");
+        assertEquals(List.of("Green shirt"), productSearchService.suggest("green", 10),
+                "Product added during the build should be suggested");
+    }
+
+    @Test
+    void shouldSuggestNamesKeptInSyncWithWrites() {
+        // Arrange
+        givenProducts(product(1L, "Red shirt", "Cotton"), product(2L, "Blue shirt", "Cotton"));
+        assertEquals(List.of("Red shirt"), productSearchService.suggest("re", 10), "Built names should be suggested");
+
+        // Act
+        productSearchService.index(product(1L, "Green shirt", "Cotton"));
+        productSearchService.index(product(3L, "Red jacket", "Wool"));
+        productSearchService.remove(2L);
+
+        // Assert
+        assertEquals(List.of("Red jacket"), productSearchService.suggest("re", 10), "Renamed product should not be suggested by its old name");
+        assertEquals(List.of("Green shirt"), productSearchService.suggest("GREEN", 10), "Renamed product should be suggested by its new name");
+        assertTrue(productSearchService.suggest("blue", 10).isEmpty(), "Removed product should not be suggested");
+        verify(productRepository, times(1)).findAllAfterId(any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void shouldThrowInvalidRequestParameters_whenSuggestWithBlankPrefix() {
+        // Arrange
+        // Act
+        // Assert
+        InvalidMethodArgumentsException exception = assertThrows(InvalidMethodArgumentsException.class,
+                () -> productSearchService.suggest("  ", 10),
+                "Blank prefix should throw InvalidMethodArgumentsException.");
+        assertEquals("Prefix should not be empty", exception.getMessage(), "Should have the same exception message");
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void shouldThrowInvalidRequestParameters_whenQueryHasNoWords() {
+        // Arrange
+        // Act
+        // Assert
+        InvalidMethodArgumentsException exception = assertThrows(InvalidMethodArgumentsException.class,
+                () -> productSearchService.search(" - ", 10),
+                "Query without words should throw InvalidMethodArgumentsException.");
+        assertEquals("Search query should contain at least one word", exception.getMessage(), "Should have the same exception message");
+        verifyNoInteractions(productRepository);
+    }
+}
@@ -1,17 +1,35 @@
 package com.bezro.shopRESTfulAPI.services.impl;
 
+import com.bezro.shopRESTfulAPI.constants.CacheNames;
 import com.bezro.shopRESTfulAPI.dtos.CreateProductDto;
+import com.bezro.shopRESTfulAPI.dtos.PriceBucketCount;
+import com.bezro.shopRESTfulAPI.dtos.ProductCursor;
+import com.bezro.shopRESTfulAPI.dtos.ProductFacetsResponse;
+import com.bezro.shopRESTfulAPI.dtos.ProductFilter;
+import com.bezro.shopRESTfulAPI.dtos.ProductPageResponse;
+import com.bezro.shopRESTfulAPI.dtos.ProductSliceResponse;
+import com.bezro.shopRESTfulAPI.dtos.ProductStock;
+import com.bezro.shopRESTfulAPI.dtos.ProductSummary;
 import com.bezro.shopRESTfulAPI.entities.Product;
+import com.bezro.shopRESTfulAPI.entities.ProductSortField;
 import com.bezro.shopRESTfulAPI.exceptions.InvalidMethodArgumentsException;
 import com.bezro.shopRESTfulAPI.exceptions.NoContentException;
+import com.bezro.shopRESTfulAPI.exceptions.NotEnoughProductStockException;
 import com.bezro.shopRESTfulAPI.repositories.ProductRepository;
+import com.bezro.shopRESTfulAPI.services.ProductSearchService;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
 import org.springframework.data.domain.*;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.util.*;
 
@@ -24,6 +42,27 @@ class ProductServiceImplTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ProductCacheInvalidator productCacheInvalidator;
+
+    @Mock
+    private ProductCountTracker productCountTracker;
+
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private ProductCatalogVersion productCatalogVersion;
+
+    @Mock
+    private CacheManager cacheManager;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -53,13 +92,8 @@ class ProductServiceImplTest {
         return productMock;
     }
 
-    private Map<String, Object> createResponseMock(List<Product> paginatedProductsMock, int pageNumber, long totalItems, int pageSize) {
-        Map<String, Object> responseMock = new HashMap<>();
-        responseMock.put("products", paginatedProductsMock);
-        responseMock.put("currentPage", pageNumber);
-        responseMock.put("totalItems", totalItems);
-        responseMock.put("totalPages", (int) Math.ceil((double) totalItems / pageSize));
-        return responseMock;
+    private ProductSummary productSummaryMock() {
+        return new SpelAwareProxyProjectionFactory().createProjection(ProductSummary.class, productMock());
     }
 
     @Test
@@ -80,6 +114,9 @@ class ProductServiceImplTest {
         assertEquals(product.getDescription(), productMock.getDescription(), "Descriptions should match");
         assertEquals(product.getPrice(), productMock.getPrice(), "Prices should match");
         assertEquals(product.getQuantity(), productMock.getQuantity(), "Quantity should match");
+        verify(productCountTracker, times(1)).increment();
+        verify(productSearchService, times(1)).index(productMock);
+        verify(productCacheInvalidator, times(1)).evictAfterCommit(List.of());
     }
 
     @Test
@@ -103,6 +140,7 @@ class ProductServiceImplTest {
 
         // Assert
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(productSearchService, times(1)).index(expectedProduct);
         assertEquals(expectedProduct.getId(), product.getId(), "Ids should match");
         assertEquals(expectedProduct.getName(), product.getName(), "Names should match");
         assertEquals(expectedProduct.getDescription(), product.getDescription(), "Descriptions should match");
@@ -110,6 +148,24 @@ class ProductServiceImplTest {
         assertEquals(expectedProduct.getQuantity(), product.getQuantity(), "Quantity should match");
     }
 
+    @Test
+    void shouldReturnOwnCopy_whenFindByIdCachedProduct() {
+        // Arrange
+        when(cacheManager.getCache(CacheNames.PRODUCTS)).thenReturn(new ConcurrentMapCache(CacheNames.PRODUCTS));
+        when(productRepository.findById(eq(1L))).thenReturn(Optional.of(productMock()));
+
+        // Act
+        Product firstProduct = productService.findById(1L);
+        firstProduct.setQuantity(0.0d);
+        Product secondProduct = productService.findById(1L);
+
+        // Assert
+        assertNotSame(firstProduct, secondProduct, "Every caller should get its own product");
+        assertEquals(10.5d, secondProduct.getQuantity(), "Change of a returned product should not reach the cache");
+        assertEquals("ProductName", secondProduct.getName(), "Cached product should have the loaded name");
+        verify(productRepository, times(1)).findById(1L);
+    }
+
     @Test
     void shouldThrowInvalidRequestParameters_whenUpdateProductWithInvalidId() {
         // Arrange
@@ -136,6 +192,8 @@ class ProductServiceImplTest {
 
         // Assert
         verify(productRepository, times(1)).delete(any(Product.class));
+        verify(productCountTracker, times(1)).decrement();
+        verify(productSearchService, times(1)).remove(1L);
     }
 
     @Test
@@ -154,68 +212,177 @@ class ProductServiceImplTest {
     @Test
     void shouldReturnObjectWithProducts_whenGetProductsPaginationWithoutSort() {
         //Arrange
-        List<Product> paginatedProductsMock = new ArrayList<>();
-        paginatedProductsMock.add(productMock());
+        List<ProductSummary> paginatedProductsMock = List.of(productSummaryMock());
 
         int pageNumber = 0;
         int pageSize = 2;
         long totalItems = paginatedProductsMock.size();
 
-        Map<String, Object> responseMock = createResponseMock(paginatedProductsMock, pageNumber, totalItems, pageSize);
         Pageable pageable = PageRequest.of(pageNumber, pageSize);
-        Page<Product> productPage = new PageImpl<>(paginatedProductsMock, pageable, totalItems);
+        Page<ProductSummary> productPage = new PageImpl<>(paginatedProductsMock, pageable, totalItems);
 
-        when(productRepository.findAll(eq(pageable))).thenReturn(productPage);
+        when(productRepository.findAllProjectedBy(eq(ProductFilter.none()), eq(pageable))).thenReturn(productPage);
 
         //Act
-        Map<String, Object> response = productService.getProductsPagination(pageNumber, pageSize, null);
-        List<Product> productsFromResponse = (List<Product>) response.get("products");
+        ProductPageResponse response = productService.getProductsPagination(pageNumber, pageSize, null, true, ProductFilter.none());
 
         //Assert
-        assertEquals(response.size(), responseMock.size(), "Should have the same size");
-        assertTrue(response.containsKey("products"), "Should contain 'products' key");
-        assertTrue(response.containsKey("currentPage"), "Should contain 'currentPage' key");
-        assertTrue(response.containsKey("totalItems"), "Should contain 'totalItems' key");
-        assertTrue(response.containsKey("totalPages"), "Should contain 'totalPages' key");
-        assertEquals(response.get("products").toString(), responseMock.get("products").toString(), "Products list should match");
-        assertEquals(response.get("currentPage"), responseMock.get("currentPage"), "Current Page should match");
-        assertEquals(response.get("totalItems"), responseMock.get("totalItems"), "Total Items should match");
-        assertEquals(response.get("totalPages"), responseMock.get("totalPages"), "Total Pages should match");
-        assertEquals(paginatedProductsMock.get(0).getName(), productsFromResponse.get(0).getName(), "The first item should have 'ProductName'");
+        assertEquals(paginatedProductsMock, response.getProducts(), "Products list should match");
+        assertEquals(pageNumber, response.getCurrentPage(), "Current Page should match");
+        assertEquals(totalItems, response.getTotalItems(), "Total Items should match");
+        assertEquals(1, response.getTotalPages(), "Total Pages should match");
+        assertEquals("ProductName", response.getProducts().get(0).getName(), "The first item should have 'ProductName'");
+        verify(productRepository, never()).findAll(any(Pageable.class));
     }
 
     @Test
     void shouldReturnObjectWithSortedProducts_whenGetProductsPaginationWithSort() {
         //Arrange
-        List<Product> paginatedProductsMock = new ArrayList<>();
-        paginatedProductsMock.add(productMock());
+        List<ProductSummary> paginatedProductsMock = List.of(productSummaryMock());
 
         int pageNumber = 0;
         int pageSize = 2;
         long totalItems = paginatedProductsMock.size();
         String sort = "name";
 
-        Map<String, Object> responseMock = createResponseMock(paginatedProductsMock, pageNumber, totalItems, pageSize);
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.Direction.ASC, sort);
-        Page<Product> productPage = new PageImpl<>(paginatedProductsMock, pageable, totalItems);
+        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(Sort.Direction.ASC, sort, "id"));
+        Page<ProductSummary> productPage = new PageImpl<>(paginatedProductsMock, pageable, totalItems);
 
-        when(productRepository.findAll(eq(pageable))).thenReturn(productPage);
+        when(productRepository.findAllProjectedBy(eq(ProductFilter.none()), eq(pageable))).thenReturn(productPage);
 
         //Act
-        Map<String, Object> response = productService.getProductsPagination(pageNumber, pageSize, sort);
-        List<Product> productsFromResponse = (List<Product>) response.get("products");
+        ProductPageResponse response = productService.getProductsPagination(pageNumber, pageSize, sort, true, ProductFilter.none());
 
         //Assert
-        assertEquals(responseMock.size(), response.size(), "Should have the same size");
-        assertTrue(response.containsKey("products"), "Should contain 'products' key");
-        assertTrue(response.containsKey("currentPage"), "Should contain 'currentPage' key");
-        assertTrue(response.containsKey("totalItems"), "Should contain 'totalItems' key");
-        assertTrue(response.containsKey("totalPages"), "Should contain 'totalPages' key");
-        assertEquals(responseMock.get("products").toString(), response.get("products").toString(), "Products list should match");
-        assertEquals(responseMock.get("currentPage"), response.get("currentPage"), "Current Page should match");
-        assertEquals(responseMock.get("totalItems"), response.get("totalItems"), "Total Items should match");
-        assertEquals(responseMock.get("totalPages"), response.get("totalPages"), "Total Pages should match");
-        assertEquals(paginatedProductsMock.get(0).getName(), productsFromResponse.get(0).getName(), "The first item should have 'ProductName'");
+        assertEquals(paginatedProductsMock, response.getProducts(), "Products list should match");
+        assertEquals(pageNumber, response.getCurrentPage(), "Current Page should match");
+        assertEquals(totalItems, response.getTotalItems(), "Total Items should match");
+        assertEquals(1, response.getTotalPages(), "Total Pages should match");
+        assertEquals("ProductName", response.getProducts().get(0).getName(), "The first item should have 'ProductName'");
+    }
+
+    @Test
+    void shouldReturnEstimatedTotalWithoutCount_whenGetProductsPaginationWithoutIncludeTotal() {
+        //Arrange
+        int pageNumber = 0;
+        int pageSize = 2;
+        Pageable pageable = PageRequest.of(pageNumber, pageSize);
+        when(productRepository.findSliceProjectedBy(eq(ProductFilter.none()), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(productSummaryMock()), pageable, true));
+        when(productCountTracker.getEstimatedCount()).thenReturn(5L);
+
+        //Act
+        ProductPageResponse response = productService.getProductsPagination(pageNumber, pageSize, null, false, ProductFilter.none());
+
+        //Assert
+        assertEquals(5L, response.getTotalItems(), "Total Items should be the estimated count");
+        assertEquals(3, response.getTotalPages(), "Total Pages should be computed from the estimated count");
+        assertFalse(response.isTotalExact(), "Total should be reported as estimated");
+        verify(productRepository, never()).findAllProjectedBy(any(), any(Pageable.class));
+        verify(productRepository, never()).count();
+    }
+
+    @Test
+    void shouldUpdateEstimatedCount_whenGetProductsPaginationWithIncludeTotal() {
+        //Arrange
+        Pageable pageable = PageRequest.of(0, 2);
+        when(productRepository.findAllProjectedBy(eq(ProductFilter.none()), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(productSummaryMock()), pageable, 7));
+
+        //Act
+        ProductPageResponse response = productService.getProductsPagination(0, 2, null, true, ProductFilter.none());
+
+        //Assert
+        assertEquals(7L, response.getTotalItems(), "Total Items should be the exact count");
+        assertTrue(response.isTotalExact(), "Total should be reported as exact");
+        verify(productCountTracker, times(1)).update(7L);
+        verify(productCountTracker, never()).getEstimatedCount();
+    }
+
+    @Test
+    void shouldSortByWhitelistedFieldsWithIdTieBreak_whenGetProductsPaginationWithMultiFieldSort() {
+        //Arrange
+        Pageable pageable = PageRequest.of(0, 2, Sort.by(
+                Sort.Order.desc("price"),
+                Sort.Order.asc("name"),
+                Sort.Order.desc("id")));
+        when(productRepository.findAllProjectedBy(eq(ProductFilter.none()), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(productSummaryMock()), pageable, 1));
+
+        //Act
+        ProductPageResponse response = productService.getProductsPagination(0, 2, "price:desc, name:asc", true, ProductFilter.none());
+
+        //Assert
+        assertEquals(1L, response.getTotalItems(), "Total Items should match");
+        verify(productRepository, times(1)).findAllProjectedBy(eq(ProductFilter.none()), eq(pageable));
+    }
+
+    @Test
+    void shouldThrowInvalidRequestParameters_whenGetProductsPaginationWithNotWhitelistedSort() {
+        // Arrange
+        // Act
+        // Assert
+        InvalidMethodArgumentsException exception = assertThrows(InvalidMethodArgumentsException.class,
+                () -> productService.getProductsPagination(0, 2, "name,description", true, ProductFilter.none()),
+                "Sorting by not whitelisted field should throw InvalidMethodArgumentsException.");
+        assertEquals("Products cannot be sorted by: description", exception.getMessage(), "Should have the same exception message");
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void shouldThrowInvalidRequestParameters_whenGetProductsPaginationWithInvalidSortDirection() {
+        // Arrange
+        // Act
+        // Assert
+        InvalidMethodArgumentsException exception = assertThrows(InvalidMethodArgumentsException.class,
+                () -> productService.getProductsPagination(0, 2, "price:up", false, ProductFilter.none()),
+                "Sorting with invalid direction should throw InvalidMethodArgumentsException.");
+        assertEquals("Invalid sort direction: up", exception.getMessage(), "Should have the same exception message");
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void shouldThrowInvalidRequestParameters_whenGetProductsPaginationWithRepeatedSortField() {
+        // Arrange
+        // Act
+        // Assert
+        InvalidMethodArgumentsException exception = assertThrows(InvalidMethodArgumentsException.class,
+                () -> productService.getProductsPagination(0, 2, "name,name:desc", false, ProductFilter.none()),
+                "Sorting by the same field twice should throw InvalidMethodArgumentsException.");
+        assertEquals("Products are already sorted by: name", exception.getMessage(), "Should have the same exception message");
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void shouldCountFilteredProducts_whenGetProductsPaginationWithFilter() {
+        //Arrange
+        ProductFilter filter = new ProductFilter(1.0, 50.0, true);
+        Pageable pageable = PageRequest.of(0, 2);
+        when(productRepository.findAllProjectedBy(eq(filter), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(productSummaryMock()), pageable, 1));
+
+        //Act
+        ProductPageResponse response = productService.getProductsPagination(0, 2, null, false, filter);
+
+        //Assert
+        assertEquals(1L, response.getTotalItems(), "Total Items should be the filtered count");
+        assertTrue(response.isTotalExact(), "Filtered total should be exact");
+        verifyNoInteractions(productCountTracker);
+    }
+
+    @Test
+    void shouldThrowInvalidRequestParameters_whenGetProductsPaginationWithInvalidPriceRange() {
+        // Arrange
+        ProductFilter filter = new ProductFilter(50.0, 10.0, false);
+
+        // Act
+        // Assert
+        InvalidMethodArgumentsException exception = assertThrows(InvalidMethodArgumentsException.class,
+                () -> productService.getProductsPagination(0, 2, null, false, filter),
+                "Minimum price above maximum price should throw InvalidMethodArgumentsException.");
+        assertEquals("Minimum price must not be greater than maximum price", exception.getMessage(),
+                "Should have the same exception message");
+        verifyNoInteractions(productRepository);
     }
 
     @Test
@@ -224,15 +391,221 @@ class ProductServiceImplTest {
         int pageNumberWithNoContent = 10;
         int pageSize = 2;
         Pageable pageable = PageRequest.of(pageNumberWithNoContent, pageSize);
-        Page<Product> emptyProductPage = Page.empty();
-        when(productRepository.findAll(eq(pageable))).thenReturn(emptyProductPage);
+        Page<ProductSummary> emptyProductPage = Page.empty();
+        when(productRepository.findAllProjectedBy(eq(ProductFilter.none()), eq(pageable))).thenReturn(emptyProductPage);
 
         // Act
         // Assert
         NoContentException exception = assertThrows(NoContentException.class,
-                () -> productService.getProductsPagination(pageNumberWithNoContent, pageSize, null),
+                () -> productService.getProductsPagination(pageNumberWithNoContent, pageSize, null, true, ProductFilter.none()),
                 "Getting a page with no content should throw NoContentException.");
         assertEquals(exception.getMessage(), "No Content", "Should have the same exception message");
-        verify(productRepository, times(1)).findAll(any(Pageable.class));
+        verify(productRepository, times(1)).findAllProjectedBy(any(), any(Pageable.class));
+    }
+
+    @Test
+    void shouldReturnFirstSliceWithCursor_whenScrollProductsWithoutCursor() {
+        // Arrange
+        Product product = productMock();
+        Pageable pageable = PageRequest.of(0, 1, Sort.by("price", "id"));
+        when(productRepository.findAllBy(eq(ProductFilter.none()), eq(pageable))).thenReturn(new SliceImpl<>(List.of(product), pageable, true));
+
+        // Act
+        ProductSliceResponse response = productService.scrollProducts(null, 1, "price", ProductFilter.none());
+
+        // Assert
+        assertEquals(List.of(product), response.getProducts(), "Slice products should match");
+        assertTrue(response.isHasNext(), "Should have the next slice");
+        ProductCursor cursor = ProductCursor.decode(response.getNextCursor());
+        assertEquals(ProductSortField.PRICE, cursor.getSortField(), "Cursor should keep the sort field");
+        assertEquals(1L, cursor.getId(), "Cursor should point to the last product");
+        assertEquals("2.0", cursor.getValue(), "Cursor should keep the sort value of the last product");
+    }
+
+    @Test
+    void shouldSeekAfterCursor_whenScrollProductsWithCursor() {
+        // Arrange
+        Product product = productMock();
+        String after = new ProductCursor(ProductSortField.NAME, 5L, "Name").encode();
+        when(productRepository.findAllAfterName(eq("Name"), eq(5L), eq(ProductFilter.none()), eq(PageRequest.of(0, 2))))
+                .thenReturn(new SliceImpl<>(List.of(product), PageRequest.of(0, 2), false));
+
+        // Act
+        ProductSliceResponse response = productService.scrollProducts(after, 2, "name", ProductFilter.none());
+
+        // Assert
+        assertEquals(List.of(product), response.getProducts(), "Slice products should match");
+        assertFalse(response.isHasNext(), "Should be the last slice");
+        assertNull(response.getNextCursor(), "Last slice should not have a cursor");
+        verify(productRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void shouldThrowInvalidRequestParameters_whenScrollProductsWithCursorOfOtherSort() {
+        // Arrange
+        String after = new ProductCursor(ProductSortField.NAME, 5L, "Name").encode();
+
+        // Act
+        // Assert
+        InvalidMethodArgumentsException exception = assertThrows(InvalidMethodArgumentsException.class,
+                () -> productService.scrollProducts(after, 2, "price", ProductFilter.none()),
+                "Cursor of another sort should throw InvalidMethodArgumentsException.");
+        assertEquals("Cursor was created for sort: name", exception.getMessage(), "Should have the same exception message");
+        verifyNoInteractions(productRepository);
+    }
+
+    private PriceBucketCount priceBucketCount(double bucket, long productsCount, long inStockCount) {
+        return new SpelAwareProxyProjectionFactory().createProjection(PriceBucketCount.class,
+                Map.of("bucket", bucket, "productsCount", productsCount, "inStockCount", inStockCount));
+    }
+
+    @Test
+    void shouldReturnFacets_whenGetProductFacets() {
+        // Arrange
+        ProductFilter filter = new ProductFilter(null, 100.0, false);
+        when(productRepository.countByPriceBucket(10.0, filter))
+                .thenReturn(List.of(priceBucketCount(0.0, 3L, 2L), priceBucketCount(5.0, 4L, 4L)));
+
+        // Act
+        ProductFacetsResponse response = productService.getProductFacets(10.0, filter);
+
+        // Assert
+        assertEquals(2, response.getPriceBuckets().size(), "Should have a bucket per returned group");
+        assertEquals(50.0, response.getPriceBuckets().get(1).getFromPrice(), "Bucket should start at its number times the size");
+        assertEquals(60.0, response.getPriceBuckets().get(1).getToPrice(), "Bucket should end one size later");
+        assertEquals(4L, response.getPriceBuckets().get(1).getProductsCount(), "Should have the bucket products count");
+        assertEquals(6L, response.getInStockCount(), "In stock count should be summed over the buckets");
+        assertEquals(1L, response.getOutOfStockCount(), "Out of stock count should be the rest of the products");
+        verify(productRepository, times(1)).countByPriceBucket(10.0, filter);
+    }
+
+    @Test
+    void shouldThrowInvalidRequestParameters_whenGetProductFacetsWithNotPositiveBucketSize() {
+        // Arrange
+        // Act
+        // Assert
+        InvalidMethodArgumentsException exception = assertThrows(InvalidMethodArgumentsException.class,
+                () -> productService.getProductFacets(0.0, ProductFilter.none()),
+                "Not positive bucket size should throw InvalidMethodArgumentsException.");
+        assertEquals("Bucket size must be greater than 0", exception.getMessage(), "Should have the same exception message");
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void shouldThrowInvalidRequestParameters_whenGetProductFacetsWithTooSmallBucketSize() {
+        // Arrange
+        // Act
+        // Assert
+        InvalidMethodArgumentsException exception = assertThrows(InvalidMethodArgumentsException.class,
+                () -> productService.getProductFacets(0.001, ProductFilter.none()),
+                "Bucket size below the minimum should throw InvalidMethodArgumentsException.");
+        assertEquals("Bucket size must be at least 0.01", exception.getMessage(), "Should have the same exception message");
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void shouldThrowInvalidRequestParameters_whenGetProductFacetsWithTooManyBuckets() {
+        // Arrange
+        ProductFilter filter = new ProductFilter(10.0, 1000.0, false);
+
+        // Act
+        // Assert
+        InvalidMethodArgumentsException exception = assertThrows(InvalidMethodArgumentsException.class,
+                () -> productService.getProductFacets(0.5, filter),
+                "Price range with too many buckets should throw InvalidMethodArgumentsException.");
+        assertEquals("Price range must not have more than 1000 buckets, use a larger bucket size", exception.getMessage(),
+                "Should have the same exception message");
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void shouldThrowInvalidRequestParameters_whenGetProductFacetsReturnsTooManyBuckets() {
+        // Arrange
+        List<PriceBucketCount> bucketCounts = new ArrayList<>();
+        for (int i = 0; i <= 1000; i++) {
+            bucketCounts.add(priceBucketCount(i, 1L, 1L));
+        }
+        when(productRepository.countByPriceBucket(0.01, ProductFilter.none())).thenReturn(bucketCounts);
+
+        // Act
+        // Assert
+        assertThrows(InvalidMethodArgumentsException.class,
+                () -> productService.getProductFacets(0.01, ProductFilter.none()),
+                "Result with too many buckets should throw InvalidMethodArgumentsException.");
+    }
+
+    private ProductStock productStockMock(Long id, Double quantity) {
+        ProductStock productStock = mock(ProductStock.class);
+        when(productStock.getId()).thenReturn(id);
+        when(productStock.getQuantity()).thenReturn(quantity);
+
+        return productStock;
+    }
+
+    @Test
+    void shouldDecreaseStockInIdOrder_whenReserveStockWithSufficientStock() {
+        // Arrange
+        Map<Long, Double> quantities = Map.of(3L, 1.0d, 1L, 2.0d, 2L, 3.0d);
+        List<ProductStock> stocks = List.of(
+                productStockMock(1L, 10.0d),
+                productStockMock(2L, 10.0d),
+                productStockMock(3L, 10.0d));
+
+        when(productRepository.findStockForUpdate(any())).thenReturn(stocks);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 1, 1});
+
+        // Act
+        Map<Long, Double> remainingStock = productService.reserveStock(quantities);
+
+        // Assert
+        InOrder inOrder = inOrder(productRepository, jdbcTemplate);
+        inOrder.verify(productRepository).findStockForUpdate(argThat(ids -> List.copyOf(ids).equals(List.of(1L, 2L, 3L))));
+        inOrder.verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<Object[]> batchArgs) -> batchArgs.size() == 3
+                && Arrays.equals(batchArgs.get(0), new Object[]{2.0d, 1L, 2.0d})
+                && Arrays.equals(batchArgs.get(1), new Object[]{3.0d, 2L, 3.0d})
+                && Arrays.equals(batchArgs.get(2), new Object[]{1.0d, 3L, 1.0d})));
+        assertEquals(Map.of(1L, 8.0d, 2L, 7.0d, 3L, 9.0d), remainingStock, "Should return the remaining stock");
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    void shouldThrowNotEnoughProductStockException_whenReserveStockUpdatesNoRow() {
+        // Arrange
+        Map<Long, Double> quantities = Map.of(1L, 2.0d, 2L, 3.0d);
+        List<ProductStock> stocks = List.of(
+                productStockMock(1L, 10.0d),
+                productStockMock(2L, 10.0d));
+
+        when(productRepository.findStockForUpdate(any())).thenReturn(stocks);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 0});
+
+        // Act
+        // Assert
+        NotEnoughProductStockException exception = assertThrows(NotEnoughProductStockException.class,
+                () -> productService.reserveStock(quantities),
+                "A line updating no row should throw NotEnoughProductStockException.");
+        assertEquals(List.of("Not enough product with id: 2"), exception.getErrors(), "Should report the line updating no row");
+        verify(productCacheInvalidator, never()).evictAfterCommit(any());
+    }
+
+    @Test
+    void shouldReportAllShortfalls_whenReserveStockWithInsufficientStock() {
+        // Arrange
+        Map<Long, Double> quantities = Map.of(1L, 20.0d, 2L, 3.0d, 3L, 30.0d);
+        List<ProductStock> stocks = List.of(
+                productStockMock(1L, 10.0d),
+                productStockMock(2L, 10.0d),
+                productStockMock(3L, 10.0d));
+
+        when(productRepository.findStockForUpdate(any())).thenReturn(stocks);
+
+        // Act
+        // Assert
+        NotEnoughProductStockException exception = assertThrows(NotEnoughProductStockException.class,
+                () -> productService.reserveStock(quantities),
+                "Reserving more than the available stock should throw NotEnoughProductStockException.");
+        assertEquals(List.of("Not enough product with id: 1", "Not enough product with id: 3"), exception.getErrors(),
+                "Should report every product with insufficient stock");
+        verifyNoInteractions(jdbcTemplate);
     }
 }
@@ -0,0 +1,118 @@
+package com.bezro.shopRESTfulAPI.services.impl;
+
+import com.bezro.shopRESTfulAPI.entities.Product;
+import com.bezro.shopRESTfulAPI.exceptions.NotEnoughProductStockException;
+import com.bezro.shopRESTfulAPI.repositories.ProductRepository;
+import com.bezro.shopRESTfulAPI.services.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductStockConcurrencyIntegrationTest {
+    private static final int CHECKOUTS_COUNT = 2000;
+    private static final int THREADS_COUNT = 32;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @DisplayName("Test a stock reservation evicts only its product from the second-level cache")
+    void shouldKeepOtherProductsCached_WhenReserveStock() {
+        // Arrange
+        productRepository.findById(1L).orElseThrow();
+        productRepository.findById(2L).orElseThrow();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        productService.reserveStock(Map.of(1L, 1.0));
+        Product decreasedProduct = productRepository.findById(1L).orElseThrow();
+        productRepository.findById(2L).orElseThrow();
+
+        // Assert
+        assertEquals(6.0, decreasedProduct.getQuantity(), "Decreased product should be read again from the DB");
+        assertEquals(1, statistics.getSecondLevelCacheMissCount(), "Only the decreased product should be evicted");
+        assertEquals(1, statistics.getSecondLevelCacheHitCount(), "Other product should stay cached");
+    }
+
+    //Reserves the stock of the product from many threads at once
+    private void checkoutInParallel(Long productId, AtomicInteger successfulCheckouts, AtomicInteger rejectedCheckouts)
+            throws Exception {
+        CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS_COUNT);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CHECKOUTS_COUNT; i++) {
+            futures.add(executor.submit(() -> {
+                startSignal.await();
+                try {
+                    productService.reserveStock(Map.of(productId, 1.0));
+                    successfulCheckouts.incrementAndGet();
+                } catch (NotEnoughProductStockException e) {
+                    rejectedCheckouts.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        startSignal.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+    }
+
+    private Product productWithStock() {
+        return productRepository.findAll().stream()
+                .filter(p -> p.getName().equals("A-Product 3"))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    @Sql(scripts = "classpath:db/populateDB.sql")
+    @Sql(scripts = "classpath:db/dropDB.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @DisplayName("Test parallel stock reservations of one product never oversell")
+    void shouldNotOversell_WhenReserveStockInParallel() throws Exception {
+        // Arrange
+        Product product = productWithStock();
+        int initialStock = (int) product.getQuantity();
+        AtomicInteger successfulCheckouts = new AtomicInteger();
+        AtomicInteger rejectedCheckouts = new AtomicInteger();
+
+        // Act
+        checkoutInParallel(product.getId(), successfulCheckouts, rejectedCheckouts);
+
+        // Assert
+        Product productAfterCheckouts = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(initialStock, successfulCheckouts.get(), "Only the available stock should be sold");
+        assertEquals(CHECKOUTS_COUNT - initialStock, rejectedCheckouts.get(), "Other checkouts should be rejected");
+        assertEquals(0.0, productAfterCheckouts.getQuantity(), "Stock should never go below zero");
+    }
+}